@@ -0,0 +1,11 @@
+package com.nba.framework.config;
+
+/**
+ * Notified after ConfigManager publishes a new snapshot (file reload, suite parameters or setProperty).
+ * Runs on the publishing thread, so implementations should only adjust state and return.
+ */
+@FunctionalInterface
+public interface ConfigChangeListener {
+    
+    void onConfigChange(ConfigSnapshot previous, ConfigSnapshot current);
+}
@@ -1,48 +1,170 @@
 package com.nba.framework.config;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import com.nba.framework.utils.LoggingProfile;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
-import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Properties;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
+/**
+ * Merges configuration layers, lowest first: built-in defaults, classpath config.properties, classpath
+ * config.yaml, the external file named by -Dconfig.file (.properties or .yaml), TestNG suite parameters,
+ * NBA_* environment variables (NBA_EXPLICIT_WAIT is explicit.wait), system properties for known keys and
+ * setProperty overrides. The merged values are validated and
+ * published as an immutable {@link ConfigSnapshot}, so getters are plain field reads without locking.
+ * With config.reload.enabled the files are watched and a changed, valid configuration is swapped in
+ * atomically; a scenario pins its snapshot so it never sees a mix of old and new values. The classpath
+ * copies live in target/classes or a jar, so the file to edit during a run is the one named by config.file.
+ */
 public class ConfigManager {
     
     private static final Logger logger = LogManager.getLogger(ConfigManager.class);
-    private static Properties properties;
-    private static ConfigManager instance;
+    private static final String ENV_PREFIX = "NBA_";
+    // System property naming an external configuration file, layered over the classpath files and watched for reloads
+    public static final String CONFIG_FILE_PROPERTY = "config.file";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\$\\{([^}]+)}");
+    private static final Set<String> BROWSERS = new LinkedHashSet<>(Arrays.asList("chrome", "firefox", "edge"));
+    
+    // Built-in defaults; also the type reference for validation
+    private Properties properties;
+    // Defaults, config.properties and config.yaml, re-read on reload
+    private final Map<String, String> fileValues = new LinkedHashMap<>();
+    private final Map<String, String> fileSources = new HashMap<>();
+    private final Map<String, String> suiteParameters = new LinkedHashMap<>();
+    private final Map<String, String> overrides = new LinkedHashMap<>();
+    private volatile ConfigSnapshot snapshot;
+    private final ThreadLocal<ConfigSnapshot> pinned = new ThreadLocal<>();
+    private final List<ConfigChangeListener> listeners = new CopyOnWriteArrayList<>();
+    private ConfigWatcher watcher;
     
     private ConfigManager() {
-        loadProperties();
+        loadProperties(fileValues, fileSources);
+        snapshot = compile(fileValues, fileSources, suiteParameters, overrides);
+        LoggingProfile.apply(getLogProfile());
+        addChangeListener((previous, current) -> {
+            if (!previous.get("log.profile", "").equals(current.get("log.profile", ""))) {
+                LoggingProfile.apply(current.get("log.profile", "verbose"));
+            }
+        });
+        if (isConfigReloadEnabled()) {
+            startWatcher();
+        }
+    }
+    
+    private static final class Holder {
+        private static final ConfigManager INSTANCE = new ConfigManager();
     }
     
     public static ConfigManager getInstance() {
-        if (instance == null) {
-            instance = new ConfigManager();
-        }
-        return instance;
+        return Holder.INSTANCE;
     }
     
-    private void loadProperties() {
+    private void loadProperties(Map<String, String> fileValues, Map<String, String> fileSources) {
         properties = new Properties();
-        try {
-            // Load from config.properties file
-            InputStream inputStream = getClass().getClassLoader().getResourceAsStream("config.properties");
+        setDefaultProperties();
+        layer(fileValues, fileSources, toMap(properties), "defaults");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("config.properties")) {
             if (inputStream != null) {
-                properties.load(inputStream);
+                Properties fileProperties = new Properties();
+                fileProperties.load(inputStream);
+                layer(fileValues, fileSources, toMap(fileProperties), "config.properties");
                 logger.info("Configuration loaded from config.properties");
             } else {
                 logger.warn("config.properties not found, using default values");
-                setDefaultProperties();
             }
         } catch (IOException e) {
             logger.error("Error loading configuration properties", e);
-            setDefaultProperties();
+        }
+        loadYaml("config.yaml", fileValues, fileSources);
+        Path external = externalConfigFile();
+        if (external != null) {
+            loadFile(external, fileValues, fileSources);
+        }
+    }
+    
+    private static Path externalConfigFile() {
+        String location = System.getProperty(CONFIG_FILE_PROPERTY, "").trim();
+        return location.isEmpty() ? null : Paths.get(location);
+    }
+    
+    /**
+     * Layers an external .properties, .yaml or .yml file over the classpath files
+     */
+    private void loadFile(Path file, Map<String, String> fileValues, Map<String, String> fileSources) {
+        if (!Files.isRegularFile(file)) {
+            logger.warn("{} not found: {}", CONFIG_FILE_PROPERTY, file);
+            return;
+        }
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            Map<String, String> values = new LinkedHashMap<>();
+            String name = file.getFileName().toString().toLowerCase();
+            if (name.endsWith(".yaml") || name.endsWith(".yml")) {
+                flatten("", new ObjectMapper(new YAMLFactory()).readTree(inputStream), values);
+            } else {
+                Properties fileProperties = new Properties();
+                fileProperties.load(inputStream);
+                values.putAll(toMap(fileProperties));
+            }
+            layer(fileValues, fileSources, values, file.toString());
+            logger.info("Configuration loaded from {}", file);
+        } catch (IOException e) {
+            logger.error("Error loading {}", file, e);
+        }
+    }
+    
+    private void loadYaml(String resource, Map<String, String> fileValues, Map<String, String> fileSources) {
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(resource)) {
+            if (inputStream == null) {
+                return;
+            }
+            Map<String, String> values = new LinkedHashMap<>();
+            flatten("", new ObjectMapper(new YAMLFactory()).readTree(inputStream), values);
+            layer(fileValues, fileSources, values, resource);
+            logger.info("Configuration loaded from {}", resource);
+        } catch (IOException e) {
+            logger.error("Error loading {}", resource, e);
+        }
+    }
+    
+    /**
+     * Nested YAML maps become dotted keys (driver: {pool: {enabled: true}} is driver.pool.enabled), lists become comma lists
+     */
+    private static void flatten(String prefix, JsonNode node, Map<String, String> into) {
+        if (node == null || node.isMissingNode()) {
+            return;
+        }
+        if (node.isObject()) {
+            node.fields().forEachRemaining(field ->
+                flatten(prefix.isEmpty() ? field.getKey() : prefix + "." + field.getKey(), field.getValue(), into));
+        } else if (node.isArray()) {
+            List<String> items = new ArrayList<>();
+            node.forEach(item -> items.add(item.asText()));
+            into.put(prefix, String.join(",", items));
+        } else {
+            into.put(prefix, node.isNull() ? "" : node.asText());
         }
     }
     
@@ -50,6 +172,8 @@ public class ConfigManager {
         // Default configuration values
         properties.setProperty("browser", "chrome");
         properties.setProperty("browser.version", "latest");
+        properties.setProperty("browser.profile", "standard");
+        properties.setProperty("browser.headless.window.size", "1920,1080");
         properties.setProperty("webdriver.auto.download", "true");
         properties.setProperty("webdriver.offline.mode", "false");
         properties.setProperty("webdriver.chrome.path", "");
@@ -60,84 +184,437 @@ public class ConfigManager {
         properties.setProperty("implicit.wait", "10");
         properties.setProperty("explicit.wait", "10");
         properties.setProperty("page.load.timeout", "30");
+        properties.setProperty("script.timeout", "30");
         properties.setProperty("remote.execution", "false");
         properties.setProperty("remote.hub.url", "http://localhost:4444/wd/hub");
+        properties.setProperty("driver.pool.enabled", "true");
+        properties.setProperty("driver.pool.max.idle", "2");
+        properties.setProperty("driver.pool.max.uses", "10");
+        properties.setProperty("driver.pool.max.age.seconds", "900");
+        properties.setProperty("driver.prefetch.enabled", "true");
+        properties.setProperty("driver.prefetch.threads", "2");
+        properties.setProperty("driver.max.live.browsers", "4");
+        properties.setProperty("driver.launch.timeout.seconds", "120");
+        properties.setProperty("driver.admission.enabled", "true");
+        properties.setProperty("driver.admission.initial.sessions", "2");
+        properties.setProperty("driver.admission.min.sessions", "1");
+        properties.setProperty("driver.admission.max.sessions", "0");
+        properties.setProperty("driver.admission.session.memory.mb", "600");
+        properties.setProperty("driver.admission.memory.reserve.mb", "1024");
+        properties.setProperty("driver.admission.max.load.per.core", "1.5");
+        properties.setProperty("driver.admission.latency.ratio", "2.0");
+        properties.setProperty("driver.admission.sample.interval.ms", "5000");
+        properties.setProperty("driver.admission.wait.timeout.seconds", "900");
+        properties.setProperty("browser.profile.root", System.getProperty("java.io.tmpdir") + "/nba-browser-profiles");
+        properties.setProperty("browser.profile.template.path", "");
+        properties.setProperty("browser.profile.copy.mode", "copy");
+        properties.setProperty("browser.profile.reaper.interval.seconds", "300");
+        properties.setProperty("browser.profile.max.age.minutes", "120");
+        properties.setProperty("launch.health.file", System.getProperty("user.home") + "/.cache/nba-automation/launch-health.properties");
+        properties.setProperty("launch.health.backoff.seconds", "300");
+        properties.setProperty("launch.health.decay.minutes", "60");
+        properties.setProperty("driver.instrumentation.enabled", "true");
+        properties.setProperty("driver.instrumentation.page.threshold.ms", "20");
+        properties.setProperty("log.profile", "verbose");
+        properties.setProperty("config.reload.enabled", "false");
+        properties.setProperty("config.reload.debounce.ms", "500");
+        properties.setProperty("scenario.ordering.enabled", "true");
+        properties.setProperty("scenario.duration.file", System.getProperty("user.home") + "/.cache/nba-automation/scenario-durations.properties");
+        properties.setProperty("scenario.duration.default.seconds", "60");
+        properties.setProperty("scenario.log.capture.enabled", "true");
+        properties.setProperty("scenario.log.path", "./test-output/logs/scenarios/");
         properties.setProperty("screenshot.path", "./test-output/screenshots/");
+        properties.setProperty("screenshot.max.width", "0");
+        properties.setProperty("screenshot.format", "png");
+        properties.setProperty("screenshot.jpeg.quality", "80");
+        properties.setProperty("screenshot.attach.timeout.ms", "5000");
         properties.setProperty("video.recording", "false");
         properties.setProperty("video.path", "./test-output/videos/");
+        properties.setProperty("video.buffer.seconds", "10");
+        properties.setProperty("video.frames.per.second", "4");
+        properties.setProperty("video.max.size", "800");
+        properties.setProperty("video.jpeg.quality", "60");
+        properties.setProperty("video.attach.timeout.ms", "60000");
         properties.setProperty("report.path", "./test-output/reports/");
+        properties.setProperty("artifact.store.enabled", "true");
+        properties.setProperty("artifact.store.path", "./test-output/artifacts/");
+        properties.setProperty("artifact.retention.max.age.days", "14");
+        properties.setProperty("artifact.retention.max.size.mb", "1024");
+        properties.setProperty("visual.regression.enabled", "false");
+        properties.setProperty("visual.regression.fail.on.diff", "false");
+        properties.setProperty("visual.baseline.path", "./src/test/resources/visual-baselines/");
+        properties.setProperty("visual.baseline.update", "false");
+        properties.setProperty("visual.pixel.tolerance", "16");
+        properties.setProperty("visual.tile.size", "32");
+        properties.setProperty("visual.max.diff.percent", "0.1");
+        properties.setProperty("visual.max.hash.distance", "20");
         
         // NBA URLs
         properties.setProperty("nba.warriors.url", "https://www.nba.com/warriors");
         properties.setProperty("nba.sixers.url", "https://www.nba.com/sixers/");
         properties.setProperty("nba.bulls.url", "https://www.nba.com/bulls/");
         
-        logger.info("Default configuration properties set");
+        // Test data
+        properties.setProperty("test.data.path", "./src/test/resources/testdata/");
+        properties.setProperty("expected.data.path", "./src/test/resources/expecteddata/");
+        
+        logger.debug("Default configuration properties set");
+    }
+    
+    /**
+     * Merges the runtime layers over the file layers and validates the result; throws without side effects
+     */
+    private ConfigSnapshot compile(Map<String, String> files, Map<String, String> fileOrigins,
+            Map<String, String> suite, Map<String, String> runtimeOverrides) {
+        Map<String, String> values = new LinkedHashMap<>(files);
+        Map<String, String> sources = new HashMap<>(fileOrigins);
+        layer(values, sources, suite, "testng suite");
+        layer(values, sources, environmentOverrides(), "environment");
+        layer(values, sources, systemPropertyOverrides(values.keySet()), "system properties");
+        layer(values, sources, runtimeOverrides, "setProperty");
+        resolvePlaceholders(values);
+        
+        ConfigSnapshot compiled = new ConfigSnapshot(values, sources, toMap(properties));
+        List<String> problems = new ArrayList<>(compiled.getProblems());
+        problems.addAll(validate(compiled));
+        if (!problems.isEmpty()) {
+            throw new IllegalStateException("Invalid configuration: " + String.join("; ", problems));
+        }
+        return compiled;
+    }
+    
+    private static void layer(Map<String, String> values, Map<String, String> sources, Map<String, String> layer, String source) {
+        for (Map.Entry<String, String> entry : layer.entrySet()) {
+            values.put(entry.getKey(), entry.getValue().trim());
+            sources.put(entry.getKey(), source);
+        }
+    }
+    
+    private static Map<String, String> toMap(Properties source) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : source.stringPropertyNames()) {
+            values.put(key, source.getProperty(key));
+        }
+        return values;
+    }
+    
+    private static Map<String, String> environmentOverrides() {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (Map.Entry<String, String> entry : System.getenv().entrySet()) {
+            if (entry.getKey().startsWith(ENV_PREFIX)) {
+                values.put(entry.getKey().substring(ENV_PREFIX.length()).toLowerCase().replace('_', '.'), entry.getValue());
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Only keys some other layer defines, so unrelated JVM properties such as java.version stay out
+     */
+    private static Map<String, String> systemPropertyOverrides(Set<String> knownKeys) {
+        Map<String, String> values = new LinkedHashMap<>();
+        for (String key : knownKeys) {
+            String value = System.getProperty(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+    
+    /**
+     * Expands ${name} from other keys, then system properties, then the environment; unknown names are left as is
+     */
+    private static void resolvePlaceholders(Map<String, String> values) {
+        for (Map.Entry<String, String> entry : values.entrySet()) {
+            String value = entry.getValue();
+            if (value.indexOf("${") < 0) {
+                continue;
+            }
+            Matcher matcher = PLACEHOLDER.matcher(value);
+            StringBuffer resolved = new StringBuffer();
+            while (matcher.find()) {
+                String name = matcher.group(1);
+                String replacement = values.get(name);
+                if (replacement == null || replacement.contains("${")) {
+                    replacement = System.getProperty(name, System.getenv(name));
+                }
+                matcher.appendReplacement(resolved, Matcher.quoteReplacement(replacement != null ? replacement : matcher.group()));
+            }
+            matcher.appendTail(resolved);
+            entry.setValue(resolved.toString());
+        }
+    }
+    
+    /**
+     * Range and format checks on the parsed values; type checks are done by the snapshot itself
+     */
+    private static List<String> validate(ConfigSnapshot compiled) {
+        List<String> problems = new ArrayList<>();
+        if (!BROWSERS.contains(compiled.get("browser", "").toLowerCase())) {
+            problems.add("browser must be one of " + BROWSERS + ", was '" + compiled.get("browser") + "'");
+        }
+        for (String key : new String[] {"explicit.wait", "page.load.timeout", "script.timeout"}) {
+            if (compiled.getInt(key, 1) <= 0) {
+                problems.add(key + " must be positive");
+            }
+        }
+        if (compiled.getInt("implicit.wait", 0) < 0) {
+            problems.add("implicit.wait must not be negative");
+        }
+        if (compiled.isRemoteExecution()) {
+            try {
+                new URL(compiled.getRemoteHubUrl());
+            } catch (MalformedURLException e) {
+                problems.add("remote.hub.url is not a valid URL: '" + compiled.getRemoteHubUrl() + "'");
+            }
+        }
+        return problems;
+    }
+    
+    /**
+     * The snapshot pinned to this thread's scenario, otherwise the latest one; keep the reference to read
+     * one consistent version across several values
+     */
+    public ConfigSnapshot getSnapshot() {
+        return snapshot();
+    }
+    
+    public ConfigSnapshot getLatestSnapshot() {
+        return snapshot;
+    }
+    
+    /**
+     * Freezes the latest snapshot for the calling thread until unpinSnapshot, so reloads during a scenario apply to the next one
+     */
+    public ConfigSnapshot pinSnapshot() {
+        ConfigSnapshot current = snapshot;
+        pinned.set(current);
+        return current;
+    }
+    
+    public void unpinSnapshot() {
+        pinned.remove();
+    }
+    
+    private ConfigSnapshot snapshot() {
+        ConfigSnapshot scenarioSnapshot = pinned.get();
+        return scenarioSnapshot != null ? scenarioSnapshot : snapshot;
+    }
+    
+    public void addChangeListener(ConfigChangeListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeChangeListener(ConfigChangeListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Re-reads config.properties and config.yaml and publishes the result if it is valid and differs from the
+     * current snapshot. An invalid file is logged and the current configuration stays in force.
+     */
+    public boolean reload() {
+        ConfigSnapshot previous;
+        ConfigSnapshot next;
+        synchronized (this) {
+            Map<String, String> values = new LinkedHashMap<>();
+            Map<String, String> sources = new HashMap<>();
+            loadProperties(values, sources);
+            try {
+                next = compile(values, sources, suiteParameters, overrides);
+            } catch (IllegalStateException e) {
+                logger.error("Configuration change rejected, keeping the current configuration: {}", e.getMessage());
+                return false;
+            }
+            previous = snapshot;
+            if (next.asMap().equals(previous.asMap())) {
+                return false;
+            }
+            fileValues.clear();
+            fileValues.putAll(values);
+            fileSources.clear();
+            fileSources.putAll(sources);
+            snapshot = next;
+        }
+        logger.info("Configuration reloaded: {}", describeChanges(previous, next));
+        notifyListeners(previous, next);
+        return true;
+    }
+    
+    /**
+     * Layers TestNG suite parameters over the files; called by ConfigSuiteListener when a suite starts
+     */
+    public void applySuiteParameters(Map<String, String> parameters) {
+        ConfigSnapshot previous;
+        ConfigSnapshot next;
+        synchronized (this) {
+            Map<String, String> merged = new LinkedHashMap<>(suiteParameters);
+            merged.putAll(parameters);
+            next = compile(fileValues, fileSources, merged, overrides);
+            suiteParameters.clear();
+            suiteParameters.putAll(merged);
+            previous = snapshot;
+            snapshot = next;
+        }
+        logger.info("Applied {} TestNG suite parameters to the configuration", parameters.size());
+        notifyListeners(previous, next);
+    }
+    
+    private void notifyListeners(ConfigSnapshot previous, ConfigSnapshot current) {
+        for (ConfigChangeListener listener : listeners) {
+            try {
+                listener.onConfigChange(previous, current);
+            } catch (RuntimeException e) {
+                logger.error("Configuration listener failed: {}", listener, e);
+            }
+        }
+    }
+    
+    private static String describeChanges(ConfigSnapshot previous, ConfigSnapshot current) {
+        Set<String> keys = new TreeSet<>(previous.asMap().keySet());
+        keys.addAll(current.asMap().keySet());
+        List<String> changes = new ArrayList<>();
+        for (String key : keys) {
+            String before = previous.get(key);
+            String after = current.get(key);
+            if (before == null ? after != null : !before.equals(after)) {
+                changes.add(key + " " + before + " -> " + after);
+            }
+        }
+        return String.join(", ", changes);
+    }
+    
+    private void startWatcher() {
+        List<Path> files = new ArrayList<>();
+        Path external = externalConfigFile();
+        if (external != null) {
+            files.add(external);
+        }
+        for (String resource : new String[] {"config.properties", "config.yaml"}) {
+            URL url = getClass().getClassLoader().getResource(resource);
+            if (url == null) {
+                continue;
+            }
+            if (!"file".equals(url.getProtocol())) {
+                logger.warn("{} is packaged in {} and cannot be watched; pass -D{}=/path/to/config.properties "
+                    + "to hot-reload a file you can edit", resource, url, CONFIG_FILE_PROPERTY);
+                continue;
+            }
+            try {
+                Path file = Paths.get(url.toURI());
+                files.add(file);
+                // config.yaml may be created next to config.properties later
+                files.add(file.resolveSibling("config.yaml"));
+                if (external == null) {
+                    logger.warn("Watching the build output copy {}; edits to the source file apply only after "
+                        + "a rebuild, so point -D{} at the file you edit", file, CONFIG_FILE_PROPERTY);
+                }
+            } catch (URISyntaxException e) {
+                logger.warn("Cannot watch configuration resource: {}", url, e);
+            }
+        }
+        if (files.isEmpty()) {
+            logger.warn("config.reload.enabled is set but there is no configuration file to watch; set -D{}",
+                CONFIG_FILE_PROPERTY);
+            return;
+        }
+        try {
+            watcher = new ConfigWatcher(files, getConfigReloadDebounceMs(), this::reload);
+            watcher.start();
+        } catch (IOException e) {
+            logger.error("Failed to start the configuration watcher", e);
+        }
     }
     
     public String getProperty(String key) {
-        return properties.getProperty(key);
+        return snapshot().get(key);
     }
     
     public String getProperty(String key, String defaultValue) {
-        return properties.getProperty(key, defaultValue);
+        return snapshot().get(key, defaultValue);
     }
     
     public int getIntProperty(String key) {
-        return Integer.parseInt(properties.getProperty(key));
+        return snapshot().getInt(key);
     }
     
     public int getIntProperty(String key, int defaultValue) {
-        try {
-            return Integer.parseInt(properties.getProperty(key));
-        } catch (NumberFormatException e) {
-            return defaultValue;
-        }
+        return snapshot().getInt(key, defaultValue);
+    }
+    
+    public double getDoubleProperty(String key, double defaultValue) {
+        return snapshot().getDouble(key, defaultValue);
     }
     
     public boolean getBooleanProperty(String key) {
-        return Boolean.parseBoolean(properties.getProperty(key));
+        return snapshot().getBoolean(key, false);
     }
     
     public boolean getBooleanProperty(String key, boolean defaultValue) {
-        try {
-            return Boolean.parseBoolean(properties.getProperty(key));
-        } catch (Exception e) {
-            return defaultValue;
-        }
+        return snapshot().getBoolean(key, defaultValue);
     }
     
+    /**
+     * Overrides one key and publishes a new snapshot; an invalid value is rejected and the old snapshot kept
+     */
     public void setProperty(String key, String value) {
-        properties.setProperty(key, value);
+        ConfigSnapshot previous;
+        ConfigSnapshot next;
+        synchronized (this) {
+            Map<String, String> merged = new LinkedHashMap<>(overrides);
+            merged.put(key, value);
+            next = compile(fileValues, fileSources, suiteParameters, merged);
+            overrides.put(key, value);
+            previous = snapshot;
+            snapshot = next;
+        }
+        // The caller sees its own override even inside a pinned scenario
+        if (pinned.get() != null) {
+            pinned.set(next);
+        }
+        notifyListeners(previous, next);
     }
     
     // Convenience methods for common properties
     public String getBrowser() {
-        return getProperty("browser", "chrome");
+        return snapshot().getBrowser();
     }
     
     public String getBrowserVersion() {
-        return getProperty("browser.version", "latest");
+        return snapshot().getBrowserVersion();
+    }
+    
+    public String getBrowserProfile() {
+        return getProperty("browser.profile", "standard");
+    }
+    
+    public String getHeadlessWindowSize() {
+        return getProperty("browser.headless.window.size", "1920,1080");
     }
     
     public int getImplicitWait() {
-        return getIntProperty("implicit.wait", 10);
+        return snapshot().getImplicitWait();
     }
     
     public int getExplicitWait() {
-        return getIntProperty("explicit.wait", 10);
+        return snapshot().getExplicitWait();
     }
     
     public int getPageLoadTimeout() {
-        return getIntProperty("page.load.timeout", 30);
+        return snapshot().getPageLoadTimeout();
+    }
+    
+    public int getScriptTimeout() {
+        return snapshot().getScriptTimeout();
     }
     
     public boolean isRemoteExecution() {
-        return getBooleanProperty("remote.execution", false);
+        return snapshot().isRemoteExecution();
     }
     
     public String getRemoteHubUrl() {
-        return getProperty("remote.hub.url", "http://localhost:4444/wd/hub");
+        return snapshot().getRemoteHubUrl();
     }
     
     public String getScreenshotPath() {
@@ -196,4 +673,254 @@ public class ConfigManager {
     public String getWebDriverCachePath() {
         return getProperty("webdriver.cache.path", System.getProperty("user.home") + "/.cache/selenium-drivers/");
     }
+
+    // Driver Pool Configuration Methods
+    public boolean isDriverPoolEnabled() {
+        return getBooleanProperty("driver.pool.enabled", true);
+    }
+
+    public int getDriverPoolMaxIdle() {
+        return getIntProperty("driver.pool.max.idle", 2);
+    }
+
+    public int getDriverPoolMaxUses() {
+        return getIntProperty("driver.pool.max.uses", 10);
+    }
+
+    public int getDriverPoolMaxAgeSeconds() {
+        return getIntProperty("driver.pool.max.age.seconds", 900);
+    }
+
+    public boolean isDriverPrefetchEnabled() {
+        return getBooleanProperty("driver.prefetch.enabled", true);
+    }
+
+    public int getDriverPrefetchThreads() {
+        return snapshot().getDriverPrefetchThreads();
+    }
+
+    public int getMaxLiveBrowsers() {
+        return snapshot().getMaxLiveBrowsers();
+    }
+
+    public int getDriverLaunchTimeoutSeconds() {
+        return getIntProperty("driver.launch.timeout.seconds", 120);
+    }
+
+    // Browser Profile Directory Configuration Methods
+    public String getBrowserProfileRoot() {
+        return getProperty("browser.profile.root", System.getProperty("java.io.tmpdir") + "/nba-browser-profiles");
+    }
+
+    public String getBrowserProfileTemplatePath() {
+        return getProperty("browser.profile.template.path", "");
+    }
+
+    public String getBrowserProfileCopyMode() {
+        return getProperty("browser.profile.copy.mode", "copy");
+    }
+
+    public int getBrowserProfileReaperIntervalSeconds() {
+        return getIntProperty("browser.profile.reaper.interval.seconds", 300);
+    }
+
+    public int getBrowserProfileMaxAgeMinutes() {
+        return getIntProperty("browser.profile.max.age.minutes", 120);
+    }
+
+    // Launch Strategy Health Configuration Methods
+    public String getLaunchHealthFile() {
+        return getProperty("launch.health.file", System.getProperty("user.home") + "/.cache/nba-automation/launch-health.properties");
+    }
+
+    public int getLaunchHealthBackoffSeconds() {
+        return getIntProperty("launch.health.backoff.seconds", 300);
+    }
+
+    public int getLaunchHealthDecayMinutes() {
+        return getIntProperty("launch.health.decay.minutes", 60);
+    }
+
+    // Driver Instrumentation Configuration Methods
+    public boolean isDriverInstrumentationEnabled() {
+        return getBooleanProperty("driver.instrumentation.enabled", true);
+    }
+
+    public int getDriverInstrumentationPageThresholdMs() {
+        return getIntProperty("driver.instrumentation.page.threshold.ms", 20);
+    }
+
+    // Logging Configuration Methods
+    public String getLogProfile() {
+        // -Dlog.profile wins (system properties layer) so CI can switch profiles without editing config.properties
+        return getProperty("log.profile", "verbose");
+    }
+
+    public boolean isScenarioLogCaptureEnabled() {
+        return getBooleanProperty("scenario.log.capture.enabled", true);
+    }
+
+    public String getScenarioLogPath() {
+        return getProperty("scenario.log.path", "./test-output/logs/scenarios/");
+    }
+
+    // Screenshot Pipeline Configuration Methods
+    public int getScreenshotMaxWidth() {
+        return getIntProperty("screenshot.max.width", 0);
+    }
+
+    public String getScreenshotFormat() {
+        return getProperty("screenshot.format", "png");
+    }
+
+    public int getScreenshotJpegQuality() {
+        return getIntProperty("screenshot.jpeg.quality", 80);
+    }
+
+    public int getScreenshotAttachTimeoutMs() {
+        return getIntProperty("screenshot.attach.timeout.ms", 5000);
+    }
+
+    // Artifact Store Configuration Methods
+    public boolean isArtifactStoreEnabled() {
+        return getBooleanProperty("artifact.store.enabled", true);
+    }
+
+    public String getArtifactStorePath() {
+        return getProperty("artifact.store.path", "./test-output/artifacts/");
+    }
+
+    public int getArtifactRetentionMaxAgeDays() {
+        return getIntProperty("artifact.retention.max.age.days", 14);
+    }
+
+    public int getArtifactRetentionMaxSizeMb() {
+        return getIntProperty("artifact.retention.max.size.mb", 1024);
+    }
+
+    // Screencast Configuration Methods
+    public int getVideoBufferSeconds() {
+        return getIntProperty("video.buffer.seconds", 10);
+    }
+
+    public int getVideoFramesPerSecond() {
+        return getIntProperty("video.frames.per.second", 4);
+    }
+
+    public int getVideoMaxSize() {
+        return getIntProperty("video.max.size", 800);
+    }
+
+    public int getVideoJpegQuality() {
+        return getIntProperty("video.jpeg.quality", 60);
+    }
+
+    public int getVideoAttachTimeoutMs() {
+        return getIntProperty("video.attach.timeout.ms", 60000);
+    }
+
+    // Visual Regression Configuration Methods
+    public boolean isVisualRegressionEnabled() {
+        return getBooleanProperty("visual.regression.enabled", false);
+    }
+
+    public boolean isVisualRegressionFailOnDiff() {
+        return getBooleanProperty("visual.regression.fail.on.diff", false);
+    }
+
+    public String getVisualBaselinePath() {
+        return getProperty("visual.baseline.path", "./src/test/resources/visual-baselines/");
+    }
+
+    public boolean isVisualBaselineUpdate() {
+        return getBooleanProperty("visual.baseline.update", false);
+    }
+
+    public int getVisualPixelTolerance() {
+        return getIntProperty("visual.pixel.tolerance", 16);
+    }
+
+    public int getVisualTileSize() {
+        return getIntProperty("visual.tile.size", 32);
+    }
+
+    public double getVisualMaxDiffPercent() {
+        return getDoubleProperty("visual.max.diff.percent", 0.1);
+    }
+
+    public int getVisualMaxHashDistance() {
+        return getIntProperty("visual.max.hash.distance", 20);
+    }
+
+    // Configuration Reload Methods
+    public boolean isConfigReloadEnabled() {
+        return getBooleanProperty("config.reload.enabled", false);
+    }
+
+    public int getConfigReloadDebounceMs() {
+        return getIntProperty("config.reload.debounce.ms", 500);
+    }
+
+    // Test Data Configuration Methods
+    public String getTestDataPath() {
+        return getProperty("test.data.path", "./src/test/resources/testdata/");
+    }
+
+    public String getExpectedDataPath() {
+        return getProperty("expected.data.path", "./src/test/resources/expecteddata/");
+    }
+
+    // Scenario Scheduling Configuration Methods
+    public boolean isScenarioOrderingEnabled() {
+        return getBooleanProperty("scenario.ordering.enabled", true);
+    }
+
+    public String getScenarioDurationFile() {
+        return getProperty("scenario.duration.file", System.getProperty("user.home") + "/.cache/nba-automation/scenario-durations.properties");
+    }
+
+    public int getScenarioDurationDefaultSeconds() {
+        return getIntProperty("scenario.duration.default.seconds", 60);
+    }
+
+    // Browser Admission Configuration Methods
+    public boolean isDriverAdmissionEnabled() {
+        return getBooleanProperty("driver.admission.enabled", true);
+    }
+
+    public int getDriverAdmissionInitialSessions() {
+        return getIntProperty("driver.admission.initial.sessions", 2);
+    }
+
+    public int getDriverAdmissionMinSessions() {
+        return getIntProperty("driver.admission.min.sessions", 1);
+    }
+
+    public int getDriverAdmissionMaxSessions() {
+        return getIntProperty("driver.admission.max.sessions", 0);
+    }
+
+    public int getDriverAdmissionSessionMemoryMb() {
+        return getIntProperty("driver.admission.session.memory.mb", 600);
+    }
+
+    public int getDriverAdmissionMemoryReserveMb() {
+        return getIntProperty("driver.admission.memory.reserve.mb", 1024);
+    }
+
+    public double getDriverAdmissionMaxLoadPerCore() {
+        return getDoubleProperty("driver.admission.max.load.per.core", 1.5);
+    }
+
+    public double getDriverAdmissionLatencyRatio() {
+        return getDoubleProperty("driver.admission.latency.ratio", 2.0);
+    }
+
+    public int getDriverAdmissionSampleIntervalMs() {
+        return getIntProperty("driver.admission.sample.interval.ms", 5000);
+    }
+
+    public int getDriverAdmissionWaitTimeoutSeconds() {
+        return getIntProperty("driver.admission.wait.timeout.seconds", 900);
+    }
 }
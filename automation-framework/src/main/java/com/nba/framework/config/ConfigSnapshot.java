@@ -0,0 +1,223 @@
+package com.nba.framework.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, validated view of the merged configuration. Every value is parsed once, when the snapshot is
+ * built, into typed maps, and the settings read on every driver and wait call into final fields, so typed
+ * reads neither parse nor take a lock. ConfigManager publishes a new snapshot whenever a source changes.
+ */
+public final class ConfigSnapshot {
+
+    private final Map<String, String> values;
+    private final Map<String, String> sources;
+    private final Map<String, Integer> ints = new HashMap<>();
+    private final Map<String, Double> doubles = new HashMap<>();
+    private final Map<String, Boolean> booleans = new HashMap<>();
+    private final List<String> problems = new ArrayList<>();
+    private final long createdAt = System.currentTimeMillis();
+
+    private final String browser;
+    private final String browserVersion;
+    private final int implicitWait;
+    private final int explicitWait;
+    private final int pageLoadTimeout;
+    private final int scriptTimeout;
+    private final boolean remoteExecution;
+    private final String remoteHubUrl;
+
+    /**
+     * Parses every value. A key with a default must keep the default's type, otherwise the mismatch is
+     * reported by getProblems(); keys without a default are parsed as whatever types they fit.
+     */
+    ConfigSnapshot(Map<String, String> values, Map<String, String> sources, Map<String, String> defaults) {
+        this.values = Collections.unmodifiableMap(new LinkedHashMap<>(values));
+        this.sources = Collections.unmodifiableMap(new LinkedHashMap<>(sources));
+        for (Map.Entry<String, String> entry : this.values.entrySet()) {
+            parse(entry.getKey(), entry.getValue(), defaults.get(entry.getKey()));
+        }
+        this.browser = get("browser", "chrome");
+        this.browserVersion = get("browser.version", "latest");
+        this.implicitWait = getInt("implicit.wait", 10);
+        this.explicitWait = getInt("explicit.wait", 10);
+        this.pageLoadTimeout = getInt("page.load.timeout", 30);
+        this.scriptTimeout = getInt("script.timeout", 30);
+        this.remoteExecution = getBoolean("remote.execution", false);
+        this.remoteHubUrl = get("remote.hub.url", "http://localhost:4444/wd/hub");
+    }
+
+    private void parse(String key, String value, String expected) {
+        Integer asInt = parseInt(value);
+        Double asDouble = parseDouble(value);
+        Boolean asBoolean = parseBoolean(value);
+        if (expected != null && !expected.equals(value)) {
+            if (parseInt(expected) != null && asInt == null) {
+                problems.add(key + " must be an integer, was '" + value + "'");
+            } else if (parseBoolean(expected) != null && asBoolean == null) {
+                problems.add(key + " must be true or false, was '" + value + "'");
+            } else if (parseDouble(expected) != null && asDouble == null) {
+                problems.add(key + " must be a number, was '" + value + "'");
+            }
+        }
+        if (asInt != null) {
+            ints.put(key, asInt);
+        }
+        if (asDouble != null) {
+            doubles.put(key, asDouble);
+        }
+        if (asBoolean != null) {
+            booleans.put(key, asBoolean);
+        }
+    }
+
+    private static Integer parseInt(String value) {
+        try {
+            return Integer.valueOf(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return Double.valueOf(value);
+        } catch (NullPointerException | NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Boolean parseBoolean(String value) {
+        if ("true".equalsIgnoreCase(value)) {
+            return Boolean.TRUE;
+        }
+        return "false".equalsIgnoreCase(value) ? Boolean.FALSE : null;
+    }
+
+    /**
+     * Values whose type does not match their default; a snapshot with problems is never published
+     */
+    List<String> getProblems() {
+        return problems;
+    }
+
+    public String get(String key) {
+        return values.get(key);
+    }
+
+    public String get(String key, String defaultValue) {
+        String value = values.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * Throws NumberFormatException when the key is missing or not an integer
+     */
+    public int getInt(String key) {
+        Integer value = ints.get(key);
+        if (value == null) {
+            throw new NumberFormatException("Not an integer: " + key + "=" + values.get(key));
+        }
+        return value;
+    }
+
+    public int getInt(String key, int defaultValue) {
+        Integer value = ints.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    public double getDouble(String key, double defaultValue) {
+        Double value = doubles.get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    /**
+     * The default when the key is missing; any value other than true (ignoring case) is false
+     */
+    public boolean getBoolean(String key, boolean defaultValue) {
+        if (!values.containsKey(key)) {
+            return defaultValue;
+        }
+        return Boolean.TRUE.equals(booleans.get(key));
+    }
+
+    /**
+     * Which layer supplied the key: defaults, config.properties, config.yaml, testng suite, environment,
+     * system properties or setProperty
+     */
+    public String getSource(String key) {
+        return sources.get(key);
+    }
+
+    public Map<String, String> asMap() {
+        return values;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getBrowser() {
+        return browser;
+    }
+
+    public String getBrowserVersion() {
+        return browserVersion;
+    }
+
+    public int getImplicitWait() {
+        return implicitWait;
+    }
+
+    public int getExplicitWait() {
+        return explicitWait;
+    }
+
+    public int getPageLoadTimeout() {
+        return pageLoadTimeout;
+    }
+
+    public int getScriptTimeout() {
+        return scriptTimeout;
+    }
+
+    public Duration getImplicitWaitDuration() {
+        return Duration.ofSeconds(implicitWait);
+    }
+
+    public Duration getExplicitWaitDuration() {
+        return Duration.ofSeconds(explicitWait);
+    }
+
+    public Duration getPageLoadTimeoutDuration() {
+        return Duration.ofSeconds(pageLoadTimeout);
+    }
+
+    public Duration getScriptTimeoutDuration() {
+        return Duration.ofSeconds(scriptTimeout);
+    }
+
+    public boolean isRemoteExecution() {
+        return remoteExecution;
+    }
+
+    public String getRemoteHubUrl() {
+        return remoteHubUrl;
+    }
+
+    /**
+     * driver.max.live.browsers; the defaults layer always supplies it, so its default lives in ConfigManager only
+     */
+    public int getMaxLiveBrowsers() {
+        return getInt("driver.max.live.browsers");
+    }
+
+    public int getDriverPrefetchThreads() {
+        return getInt("driver.prefetch.threads");
+    }
+}
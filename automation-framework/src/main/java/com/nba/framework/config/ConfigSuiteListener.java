@@ -0,0 +1,25 @@
+package com.nba.framework.config;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+import java.util.Map;
+
+/**
+ * Layers the suite's testng.xml parameters (browser, remote.execution, ...) into ConfigManager before
+ * any test runs. Registered through META-INF/services, so suites need no listeners element.
+ */
+public class ConfigSuiteListener implements ISuiteListener {
+    
+    @Override
+    public void onStart(ISuite suite) {
+        Map<String, String> parameters = suite.getXmlSuite().getAllParameters();
+        if (!parameters.isEmpty()) {
+            ConfigManager.getInstance().applySuiteParameters(parameters);
+        }
+    }
+    
+    @Override
+    public void onFinish(ISuite suite) {
+    }
+}
@@ -0,0 +1,102 @@
+package com.nba.framework.config;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Watches the directories of the configuration files on a daemon thread and calls back once a burst of
+ * changes has been quiet for the debounce period, so an editor's save-as-rename counts as one reload.
+ */
+final class ConfigWatcher implements Closeable {
+    
+    private static final Logger logger = LogManager.getLogger(ConfigWatcher.class);
+    
+    private final WatchService watchService;
+    private final Map<WatchKey, Set<Path>> watchedNames = new HashMap<>();
+    private final long debounceMillis;
+    private final Runnable onChange;
+    private final Thread thread;
+    
+    ConfigWatcher(Collection<Path> files, long debounceMillis, Runnable onChange) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.debounceMillis = Math.max(0, debounceMillis);
+        this.onChange = onChange;
+        Map<Path, Set<Path>> byDirectory = new HashMap<>();
+        for (Path file : files) {
+            Path absolute = file.toAbsolutePath().normalize();
+            byDirectory.computeIfAbsent(absolute.getParent(), directory -> new HashSet<>()).add(absolute.getFileName());
+        }
+        for (Map.Entry<Path, Set<Path>> entry : byDirectory.entrySet()) {
+            WatchKey key = entry.getKey().register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+            watchedNames.put(key, entry.getValue());
+        }
+        this.thread = new Thread(this::run, "config-watcher");
+        this.thread.setDaemon(true);
+    }
+    
+    void start() {
+        thread.start();
+        logger.info("Watching configuration files for changes: {}", watchedNames.values());
+    }
+    
+    private void run() {
+        try {
+            while (true) {
+                if (!drain(watchService.take())) {
+                    continue;
+                }
+                // Keep absorbing events until the files have been quiet for the debounce period
+                WatchKey next;
+                while ((next = watchService.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(next);
+                }
+                try {
+                    onChange.run();
+                } catch (RuntimeException e) {
+                    logger.error("Configuration reload failed", e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            logger.debug("Configuration watcher stopped");
+        }
+    }
+    
+    /**
+     * Consumes the key's events and reports whether one of them touched a watched file
+     */
+    private boolean drain(WatchKey key) {
+        Set<Path> names = watchedNames.get(key);
+        boolean relevant = false;
+        for (WatchEvent<?> event : key.pollEvents()) {
+            Object context = event.context();
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || (names != null && names.contains(context))) {
+                relevant = true;
+            }
+        }
+        key.reset();
+        return relevant;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+        thread.interrupt();
+    }
+}
@@ -0,0 +1,52 @@
+package com.nba.framework.data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed view of one team's expectations in testdata.json. Values are resolved on first use and cached
+ * by the repository; the returned collections are unmodifiable and safe to share between scenarios.
+ */
+public final class TeamTestData {
+
+    private final TestDataRepository repository;
+    private final String team;
+    private final String base;
+
+    TeamTestData(TestDataRepository repository, String team) {
+        this.repository = repository;
+        this.team = team;
+        this.base = "/testData/" + team;
+    }
+
+    public String getTeam() {
+        return team;
+    }
+
+    public String getUrl() {
+        return repository.getString("/urls/" + team);
+    }
+
+    public List<String> getExpectedSlideTitles() {
+        return repository.getList(base + "/expectedSlideTitles", String.class);
+    }
+
+    public List<String> getExpectedSlideDurations() {
+        return repository.getList(base + "/expectedSlideDurations", String.class);
+    }
+
+    public List<String> getExpectedFooterCategories() {
+        return repository.getList(base + "/expectedFooterCategories", String.class);
+    }
+
+    /**
+     * Expected number of footer links per lower-case category
+     */
+    public Map<String, Integer> getExpectedLinkCounts() {
+        return repository.getMap(base + "/expectedLinkCounts", Integer.class);
+    }
+
+    public int getExpectedLinkCount(String category) {
+        return repository.getInt(base + "/expectedLinkCounts/" + category.toLowerCase(), -1);
+    }
+}
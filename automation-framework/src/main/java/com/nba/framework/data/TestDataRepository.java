@@ -0,0 +1,304 @@
+package com.nba.framework.data;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-only access to a JSON test-data file. Opening it costs one streaming pass that records the byte
+ * range of every object and array down to INDEX_DEPTH, keyed by JSON pointer; nothing is materialised.
+ * A lookup parses only the smallest indexed range containing the pointer, and parsed nodes and typed
+ * views are cached, so parallel scenarios share them and a large file costs what the scenarios touch.
+ * Files on disk are memory-mapped; classpath resources are read into memory.
+ */
+public final class TestDataRepository {
+
+    private static final Logger logger = LogManager.getLogger(TestDataRepository.class);
+
+    public static final String DEFAULT_FILE = "testdata.json";
+    /** Containers deeper than this are found by parsing their nearest indexed ancestor */
+    private static final int INDEX_DEPTH = 4;
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final JsonFactory jsonFactory = mapper.getFactory();
+    private static final Map<String, TestDataRepository> repositories = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final ByteBuffer content;
+    private final Map<String, long[]> index;
+    private final Map<String, JsonNode> nodes = new ConcurrentHashMap<>();
+    private final Map<String, Object> views = new ConcurrentHashMap<>();
+    private final Map<String, TeamTestData> teams = new ConcurrentHashMap<>();
+
+    private TestDataRepository(String source, ByteBuffer content) throws IOException {
+        this.source = source;
+        this.content = content;
+        long start = System.nanoTime();
+        this.index = buildIndex();
+        logger.info("Indexed test data {}: {} containers, {} bytes in {} ms", source, index.size(), content.limit(),
+            (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * The shared repository for testdata.json
+     */
+    public static TestDataRepository getDefault() {
+        return forName(DEFAULT_FILE);
+    }
+
+    /**
+     * The shared repository for a data file, looked up in test.data.path, then expected.data.path, then the classpath
+     */
+    public static TestDataRepository forName(String name) {
+        return repositories.computeIfAbsent(name, TestDataRepository::open);
+    }
+
+    private static TestDataRepository open(String name) {
+        ConfigManager config = ConfigManager.getInstance();
+        try {
+            for (String directory : new String[] {config.getTestDataPath(), config.getExpectedDataPath()}) {
+                Path file = Paths.get(directory, name);
+                if (!directory.isEmpty() && Files.isRegularFile(file)) {
+                    return new TestDataRepository(file.toString(), map(file));
+                }
+            }
+            try (InputStream inputStream = TestDataRepository.class.getClassLoader().getResourceAsStream(name)) {
+                if (inputStream == null) {
+                    throw new IllegalArgumentException("Test data not found: " + name);
+                }
+                return new TestDataRepository("classpath:" + name, ByteBuffer.wrap(inputStream.readAllBytes()));
+            }
+        } catch (IOException e) {
+            logger.error("Failed to load test data: {}", name, e);
+            throw new RuntimeException("Test data load failed", e);
+        }
+    }
+
+    private static ByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+
+    /**
+     * One pass over the tokens, recording [start, end) byte offsets of each container by pointer
+     */
+    private Map<String, long[]> buildIndex() throws IOException {
+        Map<String, long[]> ranges = new HashMap<>();
+        Deque<String> pointers = new ArrayDeque<>();
+        Deque<Long> starts = new ArrayDeque<>();
+        Deque<Integer> arrayIndexes = new ArrayDeque<>();
+        try (JsonParser parser = jsonFactory.createParser(new ByteBufferInputStream(content.duplicate()))) {
+            JsonToken token;
+            String fieldName = null;
+            while ((token = parser.nextToken()) != null) {
+                if (token == JsonToken.FIELD_NAME) {
+                    fieldName = parser.getCurrentName();
+                    continue;
+                }
+                String pointer = null;
+                if (pointers.isEmpty()) {
+                    pointer = "";
+                } else if (arrayIndexes.peek() >= 0) {
+                    int position = arrayIndexes.pop();
+                    arrayIndexes.push(position + 1);
+                    pointer = pointers.peek() + "/" + position;
+                } else if (token != JsonToken.END_OBJECT && token != JsonToken.END_ARRAY) {
+                    pointer = pointers.peek() + "/" + escape(fieldName);
+                }
+                if (token == JsonToken.START_OBJECT || token == JsonToken.START_ARRAY) {
+                    if (pointers.size() >= INDEX_DEPTH) {
+                        parser.skipChildren();
+                        continue;
+                    }
+                    pointers.push(pointer);
+                    starts.push(parser.getTokenLocation().getByteOffset());
+                    arrayIndexes.push(token == JsonToken.START_ARRAY ? 0 : -1);
+                } else if (token == JsonToken.END_OBJECT || token == JsonToken.END_ARRAY) {
+                    // The array's own counter was advanced above as if END were an element; it is discarded here
+                    arrayIndexes.pop();
+                    ranges.put(pointers.pop(), new long[] {starts.pop(), parser.getCurrentLocation().getByteOffset()});
+                }
+            }
+        }
+        return ranges;
+    }
+
+    private static String escape(String segment) {
+        return segment.replace("~", "~0").replace("/", "~1");
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    public boolean has(String pointer) {
+        return node(pointer) != null;
+    }
+
+    /**
+     * The node at the JSON pointer (e.g. /testData/warriors/expectedSlideTitles), or null when absent.
+     * Nodes are shared between threads and must not be modified.
+     */
+    public JsonNode node(String pointer) {
+        JsonNode cached = nodes.get(pointer);
+        if (cached != null) {
+            return cached;
+        }
+        JsonNode resolved = resolve(pointer);
+        if (resolved == null) {
+            return null;
+        }
+        JsonNode existing = nodes.putIfAbsent(pointer, resolved);
+        return existing != null ? existing : resolved;
+    }
+
+    private JsonNode resolve(String pointer) {
+        long[] range = index.get(pointer);
+        if (range != null) {
+            return parse(range);
+        }
+        // Nearest indexed ancestor, then navigate inside it
+        String ancestor = pointer;
+        while (!ancestor.isEmpty()) {
+            ancestor = ancestor.substring(0, Math.max(0, ancestor.lastIndexOf('/')));
+            if (index.containsKey(ancestor)) {
+                JsonNode parent = node(ancestor);
+                JsonNode child = parent.at(JsonPointer.compile(pointer.substring(ancestor.length())));
+                return child.isMissingNode() ? null : child;
+            }
+        }
+        return null;
+    }
+
+    private JsonNode parse(long[] range) {
+        ByteBuffer slice = content.duplicate();
+        slice.position((int) range[0]);
+        slice.limit((int) range[1]);
+        byte[] bytes = new byte[slice.remaining()];
+        slice.get(bytes);
+        try {
+            return mapper.readTree(bytes);
+        } catch (IOException e) {
+            throw new RuntimeException("Test data parse failed: " + source, e);
+        }
+    }
+
+    /**
+     * The value at the pointer bound to a type, cached per pointer and type; null when absent
+     */
+    public <T> T get(String pointer, Class<T> type) {
+        return view(pointer, mapper.constructType(type));
+    }
+
+    public String getString(String pointer) {
+        JsonNode value = node(pointer);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    public int getInt(String pointer, int defaultValue) {
+        JsonNode value = node(pointer);
+        return value != null && value.canConvertToInt() ? value.asInt() : defaultValue;
+    }
+
+    /**
+     * An unmodifiable list, empty when the pointer is absent
+     */
+    public <E> List<E> getList(String pointer, Class<E> elementType) {
+        List<E> list = view(pointer, mapper.getTypeFactory().constructCollectionType(List.class, elementType));
+        return list != null ? list : Collections.<E>emptyList();
+    }
+
+    /**
+     * An unmodifiable map in document order, empty when the pointer is absent
+     */
+    public <V> Map<String, V> getMap(String pointer, Class<V> valueType) {
+        Map<String, V> map = view(pointer,
+            mapper.getTypeFactory().constructMapType(LinkedHashMap.class, String.class, valueType));
+        return map != null ? map : Collections.<String, V>emptyMap();
+    }
+
+    /**
+     * Typed expectations for one team under /testData/{team}
+     */
+    public TeamTestData team(String team) {
+        return teams.computeIfAbsent(team.toLowerCase(), key -> new TeamTestData(this, key));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> T view(String pointer, JavaType type) {
+        String key = pointer + "|" + type.toCanonical();
+        Object cached = views.get(key);
+        if (cached != null) {
+            return (T) cached;
+        }
+        JsonNode value = node(pointer);
+        if (value == null) {
+            return null;
+        }
+        Object converted = freeze(mapper.convertValue(value, type));
+        Object existing = views.putIfAbsent(key, converted);
+        return (T) (existing != null ? existing : converted);
+    }
+
+    private static Object freeze(Object value) {
+        if (value instanceof List) {
+            return Collections.unmodifiableList((List<?>) value);
+        }
+        if (value instanceof Map) {
+            return Collections.unmodifiableMap((Map<?, ?>) value);
+        }
+        return value;
+    }
+
+    /**
+     * Minimal stream over a buffer, so the mapped file is indexed without copying it to the heap
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
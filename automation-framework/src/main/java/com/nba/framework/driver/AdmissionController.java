@@ -0,0 +1,462 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import com.nba.framework.metrics.LatencyHistogram;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Decides how many local browser sessions may run at once and queues scenarios beyond that, instead of
+ * letting every TestNG thread launch a browser. A daemon thread samples available memory, the load average,
+ * the proportional set size of the browsers this JVM started and the WebDriver command latency trend, then
+ * moves the limit: one step up while scenarios wait and the machine has headroom, a quarter down when it is
+ * overloaded, and never above what available memory can hold once pooled idle and prefetching browsers are
+ * counted. Waiting scenarios are admitted in arrival order.
+ */
+public final class AdmissionController {
+
+    private static final Logger logger = LogManager.getLogger(AdmissionController.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final Path PROC = Paths.get("/proc");
+    private static final String MEM_AVAILABLE = "MemAvailable:";
+    // Proportional set size: shared pages are split between the processes mapping them, so the sum is not inflated
+    private static final String PSS = "Pss:";
+    // Fewer timed commands than this since the last sample say nothing about the latency trend
+    private static final int MIN_LATENCY_SAMPLES = 20;
+
+    private static final ReentrantLock lock = new ReentrantLock();
+    private static final Condition changed = lock.newCondition();
+    private static final Deque<Thread> waiters = new ArrayDeque<>();
+    private static int active;
+    // -1 until the first sample
+    private static int limit = -1;
+    private static final ThreadLocal<Boolean> admitted = new ThreadLocal<>();
+
+    private static final AtomicLong admissions = new AtomicLong();
+    private static final AtomicLong queued = new AtomicLong();
+    private static final AtomicLong waitNanos = new AtomicLong();
+    private static final AtomicLong raises = new AtomicLong();
+    private static final AtomicLong cuts = new AtomicLong();
+    private static int peakActive;
+
+    // Count and total nanos of each command histogram at the previous sample; sampler only
+    private static final Map<LatencyHistogram, long[]> previousLatency = new IdentityHashMap<>();
+    private static volatile Sample lastSample;
+    private static ScheduledExecutorService sampler;
+
+    static {
+        config.addChangeListener((previous, current) -> {
+            if (sampler != null) {
+                adjust();
+            }
+        });
+    }
+
+    private AdmissionController() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isDriverAdmissionEnabled();
+    }
+
+    /**
+     * Blocks until the calling thread may run a browser session, for at most driver.admission.wait.timeout.seconds.
+     * A thread that already holds a slot returns straight away.
+     */
+    public static void admit() {
+        if (!isEnabled() || admitted.get() != null) {
+            return;
+        }
+        startSampler();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.SECONDS.toNanos(config.getDriverAdmissionWaitTimeoutSeconds());
+        boolean waited = false;
+        lock.lock();
+        try {
+            Thread self = Thread.currentThread();
+            waiters.addLast(self);
+            try {
+                while (waiters.peekFirst() != self || active >= limit) {
+                    if (!waited) {
+                        waited = true;
+                        queued.incrementAndGet();
+                        logger.info("Scenario queued for a browser slot: {} of {} in use, {} waiting",
+                            active, limit, waiters.size());
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        throw new RuntimeException("Timed out waiting for a browser slot (" + active + " of "
+                            + limit + " in use, driver.admission.wait.timeout.seconds="
+                            + config.getDriverAdmissionWaitTimeoutSeconds() + ")");
+                    }
+                    changed.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while waiting for a browser slot", e);
+            } finally {
+                waiters.remove(self);
+                // The next waiter may fit as well
+                changed.signalAll();
+            }
+            active++;
+            peakActive = Math.max(peakActive, active);
+        } finally {
+            lock.unlock();
+        }
+        admitted.set(Boolean.TRUE);
+        admissions.incrementAndGet();
+        if (waited) {
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Gives back the calling thread's slot; does nothing when it holds none
+     */
+    public static void release() {
+        if (admitted.get() == null) {
+            return;
+        }
+        admitted.remove();
+        lock.lock();
+        try {
+            active--;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether the last sample found the machine overloaded, so optional launches such as prefetches should wait
+     */
+    public static boolean isOverloaded() {
+        Sample sample = lastSample;
+        return isEnabled() && sample != null && sample.overloadReason() != null;
+    }
+
+    private static synchronized void startSampler() {
+        if (sampler != null) {
+            return;
+        }
+        adjust();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "admission-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduleNextSample();
+    }
+
+    private static void scheduleNextSample() {
+        try {
+            // Rescheduled each time so a reloaded interval applies from the next sample
+            sampler.schedule(() -> {
+                try {
+                    adjust();
+                } catch (Exception e) {
+                    logger.warn("Admission sample failed: {}", e.getMessage());
+                } finally {
+                    scheduleNextSample();
+                }
+            }, Math.max(100, config.getDriverAdmissionSampleIntervalMs()), TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            logger.debug("Admission sampler stopped");
+        }
+    }
+
+    /**
+     * Takes a sample and moves the limit: down when overloaded, up by one when scenarios wait, capped by memory
+     */
+    private static synchronized void adjust() {
+        Sample sample = sample();
+        lastSample = sample;
+        int ceiling = getMaxSessions();
+        int floor = Math.max(1, Math.min(config.getDriverAdmissionMinSessions(), ceiling));
+        lock.lock();
+        try {
+            int target = limit < 0 ? config.getDriverAdmissionInitialSessions() : limit;
+            String reason = sample.overloadReason();
+            if (reason != null) {
+                target -= Math.max(1, target / 4);
+            } else if (!waiters.isEmpty() && active >= target) {
+                target++;
+                reason = waiters.size() + " waiting with headroom";
+            }
+            int memoryCapacity = sample.memoryCapacity(active);
+            if (target > memoryCapacity) {
+                target = memoryCapacity;
+                reason = "available memory";
+            }
+            target = Math.max(floor, Math.min(ceiling, target));
+            if (target == limit) {
+                return;
+            }
+            if (limit < 0) {
+                logger.info("Browser session limit set to {} ({})", target, sample);
+            } else {
+                (target > limit ? raises : cuts).incrementAndGet();
+                logger.info("Browser session limit {} -> {} ({}): {}", limit, target, reason, sample);
+            }
+            limit = target;
+            changed.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * driver.admission.max.sessions, one per CPU core when 0, and never above driver.max.live.browsers while pooling
+     */
+    private static int getMaxSessions() {
+        int max = config.getDriverAdmissionMaxSessions();
+        if (max <= 0) {
+            max = Runtime.getRuntime().availableProcessors();
+        }
+        if (DriverPool.isEnabled()) {
+            max = Math.min(max, config.getMaxLiveBrowsers());
+        }
+        return Math.max(1, max);
+    }
+
+    private static Sample sample() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        double load = ManagementFactory.getOperatingSystemMXBean().getSystemLoadAverage();
+        long[] browsers = browserMemory();
+        int sessions = DriverPool.isEnabled() ? DriverPool.getLiveBrowserCount() : active;
+        long perSessionMb = sessions > 0 && browsers[0] > 0
+            ? browsers[0] / sessions
+            : config.getDriverAdmissionSessionMemoryMb();
+        // Idle pooled browsers are already resident and can be leased without launching; browsers still
+        // launching (prefetches and pool misses) hold a live permit but not yet their memory
+        int idle = DriverPool.isEnabled() ? DriverPool.getIdleCount() : 0;
+        int launching = DriverPool.isEnabled() ? Math.max(0, DriverPool.getLiveBrowserCount() - idle - active) : 0;
+        return new Sample(availableMemoryMb(), load < 0 ? -1 : load / cores, browsers[0], (int) browsers[1],
+            perSessionMb, idle, launching, latencyRatio());
+    }
+
+    /**
+     * MemAvailable from /proc/meminfo (free plus reclaimable cache), else the JVM's free physical memory, else -1
+     */
+    private static long availableMemoryMb() {
+        try {
+            for (String line : Files.readAllLines(PROC.resolve("meminfo"))) {
+                if (line.startsWith(MEM_AVAILABLE)) {
+                    return parseKb(line.substring(MEM_AVAILABLE.length())) / 1024;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.debug("/proc/meminfo not readable: {}", e.getMessage());
+        }
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        if (os instanceof com.sun.management.OperatingSystemMXBean) {
+            return ((com.sun.management.OperatingSystemMXBean) os).getFreePhysicalMemorySize() / (1024 * 1024);
+        }
+        return -1;
+    }
+
+    /**
+     * PSS in MB and process count of this JVM's descendants: drivers, browsers and their renderers, but not a
+     * browser the user opened. Chrome's processes share most of their pages, which summed RSS counts once per
+     * process. {-1, 0} without /proc/<pid>/smaps_rollup (Linux before 4.14), so the configured
+     * driver.admission.session.memory.mb is used instead.
+     */
+    private static long[] browserMemory() {
+        if (!Files.isDirectory(PROC)) {
+            return new long[] {-1, 0};
+        }
+        long[] total = new long[2];
+        ProcessHandle.current().descendants().forEach(process -> {
+            try {
+                List<String> rollup = Files.readAllLines(PROC.resolve(process.pid() + "/smaps_rollup"));
+                for (String line : rollup) {
+                    if (line.startsWith(PSS)) {
+                        total[0] += parseKb(line.substring(PSS.length()));
+                        total[1]++;
+                        break;
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The process exited between listing and reading
+            }
+        });
+        if (total[1] == 0) {
+            return new long[] {-1, 0};
+        }
+        total[0] /= 1024;
+        return total;
+    }
+
+    private static long parseKb(String value) {
+        return Long.parseLong(value.trim().split("\\s+")[0]);
+    }
+
+    /**
+     * Driver time of the commands run since the last sample over what the same commands cost on average before;
+     * 0 when too few commands ran. Comparing per command keeps a change in the command mix from looking like a slowdown.
+     */
+    private static double latencyRatio() {
+        double observed = 0;
+        double expected = 0;
+        long samples = 0;
+        Map<LatencyHistogram, long[]> current = new IdentityHashMap<>();
+        for (LatencyHistogram histogram : DriverInstrumentation.getCommandHistograms()) {
+            long count = histogram.getCount();
+            long total = histogram.getTotalNanos();
+            current.put(histogram, new long[] {count, total});
+            long[] before = previousLatency.get(histogram);
+            if (before == null || before[0] == 0 || count <= before[0]) {
+                continue;
+            }
+            observed += total - before[1];
+            expected += (count - before[0]) * ((double) before[1] / before[0]);
+            samples += count - before[0];
+        }
+        previousLatency.clear();
+        previousLatency.putAll(current);
+        return samples < MIN_LATENCY_SAMPLES || expected <= 0 ? 0 : observed / expected;
+    }
+
+    /**
+     * Sessions that may run at once: the current limit, the clamped initial limit before the first sample,
+     * or Integer.MAX_VALUE when admission control is off
+     */
+    public static int getSessionCapacity() {
+        if (!isEnabled()) {
+            return Integer.MAX_VALUE;
+        }
+        int current = getLimit();
+        if (current > 0) {
+            return current;
+        }
+        int ceiling = getMaxSessions();
+        int floor = Math.max(1, Math.min(config.getDriverAdmissionMinSessions(), ceiling));
+        return Math.max(floor, Math.min(ceiling, config.getDriverAdmissionInitialSessions()));
+    }
+
+    public static int getLimit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static int getActiveCount() {
+        lock.lock();
+        try {
+            return active;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public static long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    public static String getMetricsSummary() {
+        int currentLimit;
+        int peak;
+        lock.lock();
+        try {
+            currentLimit = limit;
+            peak = peakActive;
+        } finally {
+            lock.unlock();
+        }
+        long queuedCount = queued.get();
+        long averageWait = queuedCount == 0 ? 0 : getTotalWaitMillis() / queuedCount;
+        Sample sample = lastSample;
+        return String.format("Browser admission - admitted: %d, queued: %d (total %d ms, avg %d ms), peak sessions: %d, "
+                + "limit: %d, raised: %d, cut: %d%s",
+            admissions.get(), queuedCount, getTotalWaitMillis(), averageWait, peak, currentLimit,
+            raises.get(), cuts.get(), sample == null ? "" : ", last sample: " + sample);
+    }
+
+    /**
+     * One reading of the machine; -1 marks a signal this platform does not provide
+     */
+    private static final class Sample {
+
+        private final long availableMemoryMb;
+        private final double loadPerCore;
+        private final long browserMemoryMb;
+        private final int browserProcesses;
+        private final long perSessionMb;
+        private final int idleBrowsers;
+        private final int launchingBrowsers;
+        private final double latencyRatio;
+
+        Sample(long availableMemoryMb, double loadPerCore, long browserMemoryMb, int browserProcesses,
+               long perSessionMb, int idleBrowsers, int launchingBrowsers, double latencyRatio) {
+            this.availableMemoryMb = availableMemoryMb;
+            this.loadPerCore = loadPerCore;
+            this.browserMemoryMb = browserMemoryMb;
+            this.browserProcesses = browserProcesses;
+            this.perSessionMb = perSessionMb;
+            this.idleBrowsers = idleBrowsers;
+            this.launchingBrowsers = launchingBrowsers;
+            this.latencyRatio = latencyRatio;
+        }
+
+        /**
+         * Why the machine counts as overloaded, or null when it is not
+         */
+        String overloadReason() {
+            if (availableMemoryMb >= 0 && availableMemoryMb < config.getDriverAdmissionMemoryReserveMb()) {
+                return "available memory below reserve";
+            }
+            if (loadPerCore > config.getDriverAdmissionMaxLoadPerCore()) {
+                return "load average";
+            }
+            if (latencyRatio > config.getDriverAdmissionLatencyRatio()) {
+                return "command latency";
+            }
+            return null;
+        }
+
+        /**
+         * The running sessions plus as many more as fit in available memory above the reserve
+         */
+        int memoryCapacity(int running) {
+            if (availableMemoryMb < 0 || perSessionMb <= 0) {
+                return Integer.MAX_VALUE;
+            }
+            long spare = Math.max(0, availableMemoryMb - config.getDriverAdmissionMemoryReserveMb());
+            // Launching browsers will take their share of the spare memory; idle ones already have theirs
+            long launchable = Math.max(0, spare / perSessionMb - launchingBrowsers);
+            return (int) Math.min(Integer.MAX_VALUE, running + idleBrowsers + launchable);
+        }
+
+        @Override
+        public String toString() {
+            return String.format("available memory %d MB, load %.2f per core, browsers %d MB PSS in %d processes "
+                    + "(%d MB per session, %d idle, %d launching), latency x%.2f",
+                availableMemoryMb, loadPerCore, browserMemoryMb, browserProcesses, perSessionMb, idleBrowsers,
+                launchingBrowsers, latencyRatio);
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the lifecycle of Chrome user-data-dirs.
+ * Each session gets a unique directory seeded from a pre-initialized template profile (so Chrome
+ * skips first-run setup); the directory is deleted when the driver quits. A background reaper removes
+ * directories left behind by crashed sessions or JVMs, plus legacy /tmp/chrome-test-profile-* folders.
+ */
+public class BrowserProfileManager {
+
+    private static final Logger logger = LogManager.getLogger(BrowserProfileManager.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final String SESSION_PREFIX = "session-";
+    private static final String TEMPLATE_DIR = "template";
+    private static final String OWNER_FILE = ".owner";
+    private static final String LEGACY_ROOT = "/tmp";
+    private static final String LEGACY_PREFIX = "chrome-test-profile-";
+    private static final String COPY_MODE_HARDLINK = "hardlink";
+
+    // Skips the welcome page, default-browser prompt and sign-in promo on first launch
+    private static final String SEED_PREFERENCES = "{\"browser\":{\"has_seen_welcome_page\":true,"
+        + "\"check_default_browser\":false},\"distribution\":{\"skip_first_run_ui\":true,"
+        + "\"suppress_first_run_default_browser_prompt\":true},\"sync_promo\":{\"show_on_first_run_allowed\":false}}";
+
+    private static final long PID = ProcessHandle.current().pid();
+
+    private static final Map<WebDriver, Path> activeProfiles = new ConcurrentHashMap<>();
+    private static final Set<Path> launchingProfiles = ConcurrentHashMap.newKeySet();
+    private static volatile Path templateProfile;
+    private static volatile ScheduledExecutorService reaper;
+
+    private BrowserProfileManager() {
+    }
+
+    /**
+     * Creates a unique profile directory for a new session, seeded from the template profile
+     */
+    public static Path createSessionProfile() {
+        startReaper();
+        try {
+            Path root = getRoot();
+            Path profile = Files.createTempDirectory(root, SESSION_PREFIX);
+            launchingProfiles.add(profile);
+            Files.write(profile.resolve(OWNER_FILE), String.valueOf(PID).getBytes(StandardCharsets.UTF_8));
+            copyTree(getTemplate(), profile, COPY_MODE_HARDLINK.equalsIgnoreCase(config.getBrowserProfileCopyMode()));
+            return profile;
+        } catch (IOException e) {
+            logger.error("Failed to create browser profile directory", e);
+            throw new RuntimeException("Browser profile creation failed", e);
+        }
+    }
+
+    /**
+     * Associates a profile directory with the driver that was launched on it
+     */
+    public static void bind(WebDriver driver, Path profile) {
+        launchingProfiles.remove(profile);
+        activeProfiles.put(driver, profile);
+    }
+
+    /**
+     * Deletes the profile directory of a driver that has quit. No-op for drivers without one.
+     */
+    public static void release(WebDriver driver) {
+        if (driver == null) {
+            return;
+        }
+        Path profile = activeProfiles.remove(driver);
+        if (profile != null) {
+            delete(profile);
+        }
+    }
+
+    public static void delete(Path profile) {
+        launchingProfiles.remove(profile);
+        try {
+            deleteTree(profile);
+        } catch (IOException e) {
+            // The reaper retries once the browser has fully released its files
+            logger.debug("Could not delete profile {}: {}", profile, e.getMessage());
+        }
+    }
+
+    public static int getActiveProfileCount() {
+        return activeProfiles.size();
+    }
+
+    /**
+     * Deletes session directories nobody owns any more. Returns the number of directories removed.
+     */
+    public static int reapOrphans() {
+        int reaped = 0;
+        long maxAgeMillis = TimeUnit.MINUTES.toMillis(config.getBrowserProfileMaxAgeMinutes());
+        Set<Path> active = ConcurrentHashMap.newKeySet();
+        active.addAll(activeProfiles.values());
+        active.addAll(launchingProfiles);
+
+        try (DirectoryStream<Path> sessions = Files.newDirectoryStream(getRoot(), SESSION_PREFIX + "*")) {
+            for (Path profile : sessions) {
+                if (!active.contains(profile) && isOrphaned(profile, maxAgeMillis) && tryDelete(profile)) {
+                    reaped++;
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            logger.warn("Profile reaper could not scan {}: {}", config.getBrowserProfileRoot(), e.getMessage());
+        }
+
+        // Profiles created before this manager existed were never cleaned up
+        try (DirectoryStream<Path> legacy = Files.newDirectoryStream(Paths.get(LEGACY_ROOT), LEGACY_PREFIX + "*")) {
+            for (Path profile : legacy) {
+                if (ageMillis(profile) > maxAgeMillis && tryDelete(profile)) {
+                    reaped++;
+                }
+            }
+        } catch (IOException | DirectoryIteratorException e) {
+            logger.debug("Could not scan for legacy profiles: {}", e.getMessage());
+        }
+
+        if (reaped > 0) {
+            logger.info("Profile reaper removed {} orphaned browser profile(s)", reaped);
+        }
+        return reaped;
+    }
+
+    private static boolean isOrphaned(Path profile, long maxAgeMillis) {
+        long ownerPid = readOwner(profile);
+        if (ownerPid == PID) {
+            // Ours but no longer tracked: a delete after quit failed, give the browser a minute to exit
+            return ageMillis(profile) > TimeUnit.MINUTES.toMillis(1);
+        }
+        if (ownerPid > 0) {
+            return !ProcessHandle.of(ownerPid).map(ProcessHandle::isAlive).orElse(false);
+        }
+        return ageMillis(profile) > maxAgeMillis;
+    }
+
+    private static long readOwner(Path profile) {
+        try {
+            List<String> lines = Files.readAllLines(profile.resolve(OWNER_FILE), StandardCharsets.UTF_8);
+            return lines.isEmpty() ? -1 : Long.parseLong(lines.get(0).trim());
+        } catch (IOException | NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static long ageMillis(Path path) {
+        try {
+            return System.currentTimeMillis() - Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static boolean tryDelete(Path profile) {
+        try {
+            deleteTree(profile);
+            return true;
+        } catch (IOException e) {
+            logger.debug("Could not reap profile {}: {}", profile, e.getMessage());
+            return false;
+        }
+    }
+
+    private static Path getRoot() throws IOException {
+        return Files.createDirectories(Paths.get(config.getBrowserProfileRoot()));
+    }
+
+    /**
+     * The template every session is seeded from: browser.profile.template.path when configured,
+     * otherwise a minimal profile generated once under the profile root
+     */
+    private static Path getTemplate() throws IOException {
+        Path template = templateProfile;
+        if (template != null) {
+            return template;
+        }
+        synchronized (BrowserProfileManager.class) {
+            if (templateProfile == null) {
+                String configured = config.getBrowserProfileTemplatePath();
+                if (configured != null && !configured.isEmpty() && Files.isDirectory(Paths.get(configured))) {
+                    templateProfile = Paths.get(configured);
+                } else {
+                    templateProfile = generateTemplate(getRoot().resolve(TEMPLATE_DIR));
+                }
+                logger.info("Browser profile template: {}", templateProfile);
+            }
+            return templateProfile;
+        }
+    }
+
+    private static Path generateTemplate(Path template) throws IOException {
+        Path preferences = template.resolve("Default").resolve("Preferences");
+        if (!Files.exists(preferences)) {
+            Files.createDirectories(preferences.getParent());
+            Files.write(preferences, SEED_PREFERENCES.getBytes(StandardCharsets.UTF_8));
+            // Marks first-run as complete for the whole user-data-dir
+            Files.write(template.resolve("First Run"), new byte[0]);
+        }
+        return template;
+    }
+
+    private static void copyTree(Path source, Path target, boolean hardlink) throws IOException {
+        Files.walkFileTree(source, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                Files.createDirectories(target.resolve(source.relativize(dir).toString()));
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Path destination = target.resolve(source.relativize(file).toString());
+                if (hardlink) {
+                    try {
+                        Files.createLink(destination, file);
+                        return FileVisitResult.CONTINUE;
+                    } catch (IOException | UnsupportedOperationException e) {
+                        // Different filesystem or no link support; fall back to a copy
+                    }
+                }
+                Files.copy(file, destination, StandardCopyOption.REPLACE_EXISTING);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void deleteTree(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return;
+        }
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.deleteIfExists(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.deleteIfExists(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private static void startReaper() {
+        if (reaper != null) {
+            return;
+        }
+        synchronized (BrowserProfileManager.class) {
+            if (reaper == null) {
+                ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                    Thread thread = new Thread(runnable, "browser-profile-reaper");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                long interval = Math.max(10, config.getBrowserProfileReaperIntervalSeconds());
+                executor.scheduleWithFixedDelay(() -> {
+                    try {
+                        reapOrphans();
+                    } catch (RuntimeException e) {
+                        // An exception escaping the task would cancel every later run without a trace
+                        logger.warn("Profile reaper run failed", e);
+                    }
+                }, 0, interval, TimeUnit.SECONDS);
+                Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                    for (Path profile : new ArrayList<>(activeProfiles.values())) {
+                        tryDelete(profile);
+                    }
+                }, "browser-profile-cleanup"));
+                reaper = executor;
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package com.nba.framework.driver;
+
+import org.openqa.selenium.ImmutableCapabilities;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+/**
+ * Immutable, precompiled browser options for one launch profile.
+ * The template options are never handed out; every session gets a cheap copy it may patch.
+ */
+public final class CapabilityTemplate {
+
+    private static final ImmutableCapabilities NO_EXTRA_CAPABILITIES = new ImmutableCapabilities();
+
+    private final String name;
+    private final ChromeOptions chromeTemplate;
+    private final FirefoxOptions firefoxTemplate;
+    private final EdgeOptions edgeTemplate;
+    private final boolean isolatedProfile;
+
+    CapabilityTemplate(String name, ChromeOptions chromeTemplate, FirefoxOptions firefoxTemplate,
+                       EdgeOptions edgeTemplate, boolean isolatedProfile) {
+        this.name = name;
+        this.chromeTemplate = chromeTemplate;
+        this.firefoxTemplate = firefoxTemplate;
+        this.edgeTemplate = edgeTemplate;
+        this.isolatedProfile = isolatedProfile;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Whether sessions of this profile get their own user-data-dir (remote grid nodes manage their own)
+     */
+    public boolean usesIsolatedProfile() {
+        return isolatedProfile;
+    }
+
+    public ChromeOptions newChromeOptions() {
+        return chromeTemplate.merge(NO_EXTRA_CAPABILITIES);
+    }
+
+    /**
+     * Copies the Chrome template and patches in the per-session user-data-dir
+     */
+    public ChromeOptions newChromeOptions(String userDataDir) {
+        ChromeOptions options = newChromeOptions();
+        if (isolatedProfile && userDataDir != null) {
+            options.addArguments("--user-data-dir=" + userDataDir);
+        }
+        return options;
+    }
+
+    public FirefoxOptions newFirefoxOptions() {
+        return firefoxTemplate.merge(NO_EXTRA_CAPABILITIES);
+    }
+
+    public EdgeOptions newEdgeOptions() {
+        return edgeTemplate.merge(NO_EXTRA_CAPABILITIES);
+    }
+}
@@ -0,0 +1,192 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.chrome.ChromeOptions;
+import org.openqa.selenium.edge.EdgeOptions;
+import org.openqa.selenium.firefox.FirefoxOptions;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Registry of named launch profiles, compiled once from {@link ConfigManager}.
+ * <ul>
+ *   <li>standard - the stealth Chrome setup the suites were written against (images blocked)</li>
+ *   <li>full-fidelity - standard, but images and page rendering left as a user would see them</li>
+ *   <li>fast-headless - standard, headless with a fixed window size, for the cheapest launches</li>
+ *   <li>remote-grid - minimal arguments, no local profile directory, for Selenium Grid nodes</li>
+ * </ul>
+ */
+public class CapabilityTemplates {
+
+    private static final Logger logger = LogManager.getLogger(CapabilityTemplates.class);
+
+    public static final String STANDARD = "standard";
+    public static final String FULL_FIDELITY = "full-fidelity";
+    public static final String FAST_HEADLESS = "fast-headless";
+    public static final String REMOTE_GRID = "remote-grid";
+
+    private static final String USER_AGENT =
+        "Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/141.0.0.0 Safari/537.36";
+
+    private static final List<String> BASIC_ARGUMENTS = Arrays.asList(
+        "--start-maximized",
+        "--disable-notifications",
+        "--disable-popup-blocking",
+        "--remote-allow-origins=*",
+        "--disable-dev-shm-usage",
+        "--no-sandbox",
+        "--disable-gpu",
+        "--disable-web-security"
+    );
+
+    // Aggressive stealth options to bypass robot verification
+    private static final List<String> STEALTH_ARGUMENTS = Arrays.asList(
+        "--disable-blink-features=AutomationControlled",
+        "--exclude-switches=enable-automation",
+        "--disable-extensions",
+        "--disable-plugins",
+        "--disable-background-timer-throttling",
+        "--disable-backgrounding-occluded-windows",
+        "--disable-renderer-backgrounding",
+        "--disable-ipc-flooding-protection",
+        "--disable-extensions-except",
+        "--disable-plugins-discovery",
+        "--disable-default-apps",
+        "--disable-sync",
+        "--disable-translate",
+        "--hide-scrollbars",
+        "--mute-audio",
+        "--no-first-run",
+        "--disable-infobars",
+        "--disable-logging",
+        "--disable-permissions-api",
+        "--disable-presentation-api",
+        "--disable-print-preview",
+        "--disable-speech-api",
+        "--disable-file-system",
+        "--disable-client-side-phishing-detection",
+        "--disable-component-extensions-with-background-pages",
+        "--disable-background-networking",
+        // The old option builder repeated --disable-features for a dozen features, but Chrome honours only
+        // the last switch, so this one feature is all that was ever disabled; it is kept that way
+        "--disable-features=WebRtcUseEchoCanceller3",
+        "--user-agent=" + USER_AGENT
+    );
+
+    private static final List<String> REMOTE_ARGUMENTS = Arrays.asList(
+        "--disable-notifications",
+        "--disable-popup-blocking",
+        "--disable-dev-shm-usage",
+        "--disable-blink-features=AutomationControlled"
+    );
+
+    private static volatile Map<String, CapabilityTemplate> templates;
+
+    private CapabilityTemplates() {
+    }
+
+    /**
+     * Template for the profile configured by browser.profile
+     */
+    public static CapabilityTemplate getDefault() {
+        return get(ConfigManager.getInstance().getBrowserProfile());
+    }
+
+    /**
+     * Template for a named profile; unknown names fall back to the standard profile
+     */
+    public static CapabilityTemplate get(String profileName) {
+        Map<String, CapabilityTemplate> compiled = templates;
+        if (compiled == null) {
+            compiled = recompile();
+        }
+        CapabilityTemplate template = compiled.get(profileName);
+        if (template == null) {
+            logger.warn("Unknown browser profile '{}', using '{}'", profileName, STANDARD);
+            template = compiled.get(STANDARD);
+        }
+        return template;
+    }
+
+    /**
+     * Rebuilds every template from the current configuration
+     */
+    public static synchronized Map<String, CapabilityTemplate> recompile() {
+        ConfigManager config = ConfigManager.getInstance();
+        String windowSize = config.getHeadlessWindowSize();
+
+        Map<String, CapabilityTemplate> compiled = new HashMap<>();
+        compiled.put(STANDARD, new CapabilityTemplate(STANDARD,
+            chromeOptions(true, false, windowSize), firefoxOptions(false), edgeOptions(false), true));
+        compiled.put(FULL_FIDELITY, new CapabilityTemplate(FULL_FIDELITY,
+            chromeOptions(false, false, windowSize), firefoxOptions(false), edgeOptions(false), true));
+        compiled.put(FAST_HEADLESS, new CapabilityTemplate(FAST_HEADLESS,
+            chromeOptions(true, true, windowSize), firefoxOptions(true), edgeOptions(true), true));
+        compiled.put(REMOTE_GRID, new CapabilityTemplate(REMOTE_GRID,
+            remoteChromeOptions(), new FirefoxOptions(), new EdgeOptions(), false));
+
+        templates = Collections.unmodifiableMap(compiled);
+        logger.info("Compiled browser capability templates: {}", compiled.keySet());
+        return templates;
+    }
+
+    private static ChromeOptions chromeOptions(boolean blockImages, boolean headless, String windowSize) {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments(BASIC_ARGUMENTS);
+        options.addArguments(STEALTH_ARGUMENTS);
+        if (blockImages) {
+            options.addArguments("--disable-images");
+        }
+        if (headless) {
+            options.addArguments("--headless=new", "--window-size=" + windowSize);
+        }
+
+        // Experimental options to hide automation
+        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation", "enable-logging"});
+        options.setExperimentalOption("useAutomationExtension", false);
+
+        // Additional prefs to hide automation
+        Map<String, Object> prefs = new HashMap<>();
+        prefs.put("credentials_enable_service", false);
+        prefs.put("password_manager_enabled", false);
+        prefs.put("profile.default_content_setting_values.notifications", 2);
+        prefs.put("profile.default_content_settings.popups", 0);
+        if (blockImages) {
+            prefs.put("profile.managed_default_content_settings.images", 2);
+        }
+        options.setExperimentalOption("prefs", Collections.unmodifiableMap(prefs));
+
+        return options;
+    }
+
+    private static ChromeOptions remoteChromeOptions() {
+        ChromeOptions options = new ChromeOptions();
+        options.addArguments(REMOTE_ARGUMENTS);
+        options.setExperimentalOption("excludeSwitches", new String[]{"enable-automation"});
+        return options;
+    }
+
+    private static FirefoxOptions firefoxOptions(boolean headless) {
+        FirefoxOptions options = new FirefoxOptions();
+        options.addArguments("--start-maximized");
+        if (headless) {
+            options.addArguments("-headless");
+        }
+        return options;
+    }
+
+    private static EdgeOptions edgeOptions(boolean headless) {
+        EdgeOptions options = new EdgeOptions();
+        options.addArguments("--start-maximized");
+        if (headless) {
+            options.addArguments("--headless=new");
+        }
+        return options;
+    }
+}
@@ -0,0 +1,209 @@
+package com.nba.framework.driver;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Memoized lookup of driver executables. A found executable is kept for the life of the JVM and only
+ * re-checked (with a single stat) after a launch using it has failed; a miss is remembered for MISS_TTL_MILLIS,
+ * so a driver installed later is still picked up.
+ */
+public class DriverBinaryResolver {
+
+    private static final Logger logger = LogManager.getLogger(DriverBinaryResolver.class);
+
+    // Common driver executable names
+    private static final Map<String, List<String>> DRIVER_NAMES;
+
+    static {
+        Map<String, List<String>> names = new HashMap<>();
+        names.put("chrome", Arrays.asList("chromedriver", "chromedriver.exe", "chrome-driver", "chrome-driver.exe"));
+        names.put("firefox", Arrays.asList("geckodriver", "geckodriver.exe", "firefox-driver", "firefox-driver.exe"));
+        names.put("edge", Arrays.asList("msedgedriver", "msedgedriver.exe", "edge-driver", "edge-driver.exe"));
+        DRIVER_NAMES = Collections.unmodifiableMap(names);
+    }
+
+    // Common driver paths to check (project drivers first)
+    private static final List<String> COMMON_DRIVER_PATHS = Arrays.asList(
+        "./drivers/chromedriver-mac-arm64/",                  // ChromeDriver 141 (PRIORITY)
+        "../drivers/chromedriver-mac-arm64/",                 // ChromeDriver 141 (from core-product-tests)
+        "./drivers/",                                          // Project drivers directory
+        "../drivers/",                                         // Project drivers directory (from core-product-tests)
+        "./test-drivers/",                                     // Alternative project drivers
+        "../chrome-mac-arm64/",                                // Chrome for Testing directory (from core-product-tests)
+        "./chrome-mac-arm64/",                                 // Chrome for Testing directory (from root)
+        "/usr/local/bin/",
+        "/usr/bin/",
+        "/opt/homebrew/bin/",
+        System.getProperty("user.home") + "/.local/bin/",
+        System.getProperty("user.home") + "/bin/",
+        System.getProperty("java.io.tmpdir") + "/drivers/"
+    );
+
+    private static final String CACHE_ROOT = System.getProperty("user.home") + "/.cache/selenium-drivers/";
+
+    // How long a browser type with no executable is answered from memory before the locations are rescanned
+    private static final long MISS_TTL_MILLIS = 30_000;
+
+    private static final Map<String, Lookup> projectDrivers = new ConcurrentHashMap<>();
+    private static final Map<String, Lookup> cachedDrivers = new ConcurrentHashMap<>();
+
+    private DriverBinaryResolver() {
+    }
+
+    /**
+     * Resolves the driver executable from the project and common system locations
+     */
+    public static ResolvedDriver resolveProjectDriver(String browserType) {
+        return lookup(projectDrivers, browserType, DriverBinaryResolver::scanCommonLocations);
+    }
+
+    /**
+     * Resolves the driver executable from the local selenium-drivers cache
+     */
+    public static ResolvedDriver resolveCachedDriver(String browserType) {
+        return lookup(cachedDrivers, browserType, DriverBinaryResolver::scanCache);
+    }
+
+    private static ResolvedDriver lookup(Map<String, Lookup> index, String browserType,
+                                         Function<String, Optional<ResolvedDriver>> scanner) {
+        Lookup entry = index.compute(browserType, (key, current) ->
+            current == null || current.isExpiredMiss() ? new Lookup(scanner.apply(key)) : current);
+        return entry.driver.orElse(null);
+    }
+
+    /**
+     * Called after a launch failed: drops index entries whose executable is gone or has changed
+     * on disk, so the next lookup rescans. Unchanged entries are kept.
+     */
+    public static void revalidate(String browserType) {
+        revalidate(projectDrivers, browserType);
+        revalidate(cachedDrivers, browserType);
+    }
+
+    /**
+     * Forgets every resolved executable, forcing a full rescan on the next lookup
+     */
+    public static void invalidateAll() {
+        projectDrivers.clear();
+        cachedDrivers.clear();
+    }
+
+    private static void revalidate(Map<String, Lookup> index, String browserType) {
+        Lookup entry = index.get(browserType);
+        if (entry != null && entry.driver.isPresent() && !entry.driver.get().isUnchangedOnDisk()) {
+            logger.info("Driver executable changed on disk, rescanning: {}", entry.driver.get().getPath());
+            index.remove(browserType, entry);
+        }
+    }
+
+    private static Optional<ResolvedDriver> scanCommonLocations(String browserType) {
+        List<String> driverNames = DRIVER_NAMES.getOrDefault(browserType, Collections.emptyList());
+        for (String location : COMMON_DRIVER_PATHS) {
+            for (String driverName : driverNames) {
+                Path candidate = Paths.get(location + driverName);
+                if (Files.isRegularFile(candidate)) {
+                    logger.info("Resolved {} driver: {}", browserType, candidate);
+                    return Optional.of(new ResolvedDriver(candidate));
+                }
+            }
+        }
+        logger.warn("No {} driver found in {} common locations", browserType, COMMON_DRIVER_PATHS.size());
+        return Optional.empty();
+    }
+
+    private static Optional<ResolvedDriver> scanCache(String browserType) {
+        Path cachePath = Paths.get(CACHE_ROOT + browserType);
+        if (!Files.isDirectory(cachePath)) {
+            return Optional.empty();
+        }
+        try (Stream<Path> files = Files.list(cachePath)) {
+            return files
+                .filter(Files::isRegularFile)
+                .filter(path -> path.toString().contains("driver"))
+                .findFirst()
+                .map(ResolvedDriver::new);
+        } catch (IOException e) {
+            logger.warn("Error reading cache directory: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private static FileTime lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    /**
+     * The result of one scan; an empty result expires so the locations are looked at again
+     */
+    private static final class Lookup {
+
+        private final Optional<ResolvedDriver> driver;
+        private final long scannedAt = System.currentTimeMillis();
+
+        Lookup(Optional<ResolvedDriver> driver) {
+            this.driver = driver;
+        }
+
+        boolean isExpiredMiss() {
+            return !driver.isPresent() && System.currentTimeMillis() - scannedAt >= MISS_TTL_MILLIS;
+        }
+    }
+
+    /**
+     * A driver executable found on disk, with the modification time it had when it was indexed
+     */
+    public static class ResolvedDriver {
+
+        private final Path path;
+        private final FileTime lastModified;
+        private volatile String version;
+
+        ResolvedDriver(Path path) {
+            this.path = path;
+            this.lastModified = DriverBinaryResolver.lastModified(path);
+        }
+
+        public String getPath() {
+            return path.toString();
+        }
+
+        public FileTime getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * Driver version, read lazily by running the executable once
+         */
+        public String getVersion() {
+            if (version == null) {
+                version = DriverUtils.getDriverVersion(path.toString());
+            }
+            return version;
+        }
+
+        boolean isUnchangedOnDisk() {
+            FileTime current = DriverBinaryResolver.lastModified(path);
+            return current != null && current.equals(lastModified);
+        }
+    }
+}
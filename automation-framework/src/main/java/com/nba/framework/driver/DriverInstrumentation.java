@@ -0,0 +1,178 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import com.nba.framework.metrics.LatencyHistogram;
+import com.nba.framework.pages.BasePage;
+import com.nba.framework.utils.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.support.events.EventFiringDecorator;
+import org.openqa.selenium.support.events.WebDriverListener;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Times every WebDriver and WebElement call made through a decorated driver and records the latency
+ * per command, per locator and per page-object method (the outermost BasePage frame on the stack).
+ * Histograms are lock-free, so parallel scenarios record without contention. Finding the page-object
+ * method takes a stack walk, so only calls slower than driver.instrumentation.page.threshold.ms pay for it.
+ */
+public class DriverInstrumentation implements WebDriverListener {
+
+    private static final Logger logger = LogManager.getLogger(DriverInstrumentation.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final DriverInstrumentation LISTENER = new DriverInstrumentation();
+    private static final StackWalker STACK_WALKER = StackWalker.getInstance(StackWalker.Option.RETAIN_CLASS_REFERENCE);
+    private static final int REPORT_LIMIT = 25;
+
+    private static final Map<Method, LatencyHistogram> commands = new ConcurrentHashMap<>();
+    private static final Map<By, LatencyHistogram> locators = new ConcurrentHashMap<>();
+    private static final Map<Class<?>, Map<String, LatencyHistogram>> pageMethods = new ConcurrentHashMap<>();
+
+    private static final ThreadLocal<CallStack> callStack = ThreadLocal.withInitial(CallStack::new);
+
+    private DriverInstrumentation() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isDriverInstrumentationEnabled();
+    }
+
+    /**
+     * Wraps the driver so every call it (and the elements it returns) makes is timed.
+     * Returns the driver unchanged when instrumentation is disabled.
+     */
+    public static WebDriver decorate(WebDriver driver) {
+        if (driver == null || !isEnabled()) {
+            return driver;
+        }
+        return new EventFiringDecorator<>(LISTENER).decorate(driver);
+    }
+
+    @Override
+    public void beforeAnyCall(Object target, Method method, Object[] args) {
+        callStack.get().push(System.nanoTime());
+    }
+
+    @Override
+    public void afterAnyCall(Object target, Method method, Object[] args, Object result) {
+        record(method, args, callStack.get().pop(), false);
+    }
+
+    @Override
+    public void onError(Object target, Method method, Object[] args, InvocationTargetException e) {
+        record(method, args, callStack.get().pop(), true);
+    }
+
+    private static void record(Method method, Object[] args, long startNanos, boolean error) {
+        if (startNanos == 0 || method.getDeclaringClass() == Object.class) {
+            return;
+        }
+        long elapsed = System.nanoTime() - startNanos;
+
+        commands.computeIfAbsent(method, key -> new LatencyHistogram(
+            key.getDeclaringClass().getSimpleName() + "." + key.getName())).record(elapsed, error);
+
+        if (args != null && args.length > 0 && args[0] instanceof By) {
+            locators.computeIfAbsent((By) args[0], key -> new LatencyHistogram(key.toString())).record(elapsed, error);
+        }
+
+        if (elapsed < TimeUnit.MILLISECONDS.toNanos(config.getDriverInstrumentationPageThresholdMs())) {
+            return;
+        }
+        StackWalker.StackFrame pageFrame = STACK_WALKER.walk(frames -> frames
+            .filter(frame -> BasePage.class.isAssignableFrom(frame.getDeclaringClass()))
+            .reduce((inner, outer) -> outer)
+            .orElse(null));
+        if (pageFrame != null) {
+            pageMethods.computeIfAbsent(pageFrame.getDeclaringClass(), key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(pageFrame.getMethodName(), name -> new LatencyHistogram(
+                    pageFrame.getDeclaringClass().getSimpleName() + "." + name))
+                .record(elapsed, error);
+        }
+    }
+
+    public static void reset() {
+        commands.clear();
+        locators.clear();
+        pageMethods.clear();
+    }
+
+    /**
+     * The live per-command histograms, for callers that track latency over time
+     */
+    static Collection<LatencyHistogram> getCommandHistograms() {
+        return commands.values();
+    }
+
+    /**
+     * The slowest commands, locators and page-object methods by total driver time
+     */
+    public static String getReport() {
+        List<LatencyHistogram> byPageMethod = new ArrayList<>();
+        for (Map<String, LatencyHistogram> methods : pageMethods.values()) {
+            byPageMethod.addAll(methods.values());
+        }
+
+        StringBuilder report = new StringBuilder("WebDriver latency report (sorted by total time)\n");
+        appendSection(report, "Per command", commands.values());
+        appendSection(report, "Per locator", locators.values());
+        appendSection(report, "Driver time per page-object method (calls of "
+            + config.getDriverInstrumentationPageThresholdMs() + " ms and over)", byPageMethod);
+        return report.toString();
+    }
+
+    /**
+     * Logs the report and writes it to the report directory
+     */
+    public static void dumpReport() {
+        if (commands.isEmpty()) {
+            return;
+        }
+        String report = getReport();
+        logger.info(report);
+        FileUtils.writeToFile(config.getReportPath() + "driver_latency_" + FileUtils.getTimestamp() + ".txt", report);
+    }
+
+    private static void appendSection(StringBuilder report, String title, Collection<LatencyHistogram> histograms) {
+        List<LatencyHistogram> sorted = new ArrayList<>(histograms);
+        sorted.sort(Comparator.comparingLong(LatencyHistogram::getTotalNanos).reversed());
+        report.append("\n").append(title).append(":\n");
+        for (int i = 0; i < sorted.size() && i < REPORT_LIMIT; i++) {
+            report.append("  ").append(sorted.get(i)).append("\n");
+        }
+    }
+
+    /**
+     * Start times of the calls in progress on this thread; calls on decorated objects can nest
+     */
+    private static final class CallStack {
+
+        private long[] starts = new long[8];
+        private int depth;
+
+        void push(long nanos) {
+            if (depth == starts.length) {
+                long[] grown = new long[starts.length * 2];
+                System.arraycopy(starts, 0, grown, 0, depth);
+                starts = grown;
+            }
+            starts[depth++] = nanos;
+        }
+
+        long pop() {
+            return depth == 0 ? 0 : starts[--depth];
+        }
+    }
+}
@@ -1,8 +1,11 @@
 package com.nba.framework.driver;
 
+import com.nba.framework.config.ConfigManager;
+import com.nba.framework.config.ConfigSnapshot;
 import io.github.bonigarcia.wdm.WebDriverManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.Capabilities;
 import org.openqa.selenium.WebDriver;
 import org.openqa.selenium.chrome.ChromeDriver;
 import org.openqa.selenium.chrome.ChromeOptions;
@@ -11,12 +14,13 @@ import org.openqa.selenium.firefox.FirefoxOptions;
 import org.openqa.selenium.edge.EdgeDriver;
 import org.openqa.selenium.edge.EdgeOptions;
 import org.openqa.selenium.remote.RemoteWebDriver;
-import org.openqa.selenium.remote.DesiredCapabilities;
 import org.springframework.stereotype.Component;
 
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
 import java.util.concurrent.TimeUnit;
 
 @Component
@@ -24,6 +28,10 @@ public class DriverManager {
     
     private static final Logger logger = LogManager.getLogger(DriverManager.class);
     private static ThreadLocal<WebDriver> driverThreadLocal = new ThreadLocal<>();
+    // The undecorated session, which is what DriverPool and BrowserProfileManager track
+    private static ThreadLocal<WebDriver> rawDriverThreadLocal = new ThreadLocal<>();
+    // Timeouts each session was last given, so a pooled session picks up reloaded values
+    private static final Map<WebDriver, String> appliedTimeouts = Collections.synchronizedMap(new WeakHashMap<>());
     
     private static final String CHROME = "chrome";
     private static final String FIREFOX = "firefox";
@@ -33,82 +41,124 @@ public class DriverManager {
         return driverThreadLocal.get();
     }
     
+    /**
+     * The session without the instrumentation decorator
+     */
+    public static WebDriver getRawDriver() {
+        return rawDriverThreadLocal.get();
+    }
+    
     public static void setDriver(WebDriver driver) {
-        driverThreadLocal.set(driver);
+        rawDriverThreadLocal.set(driver);
+        driverThreadLocal.set(DriverInstrumentation.decorate(driver));
     }
     
     public static void removeDriver() {
         driverThreadLocal.remove();
+        rawDriverThreadLocal.remove();
+        AdmissionController.release();
     }
     
     public static WebDriver initializeDriver(String browserName) {
         WebDriver driver = null;
         
+        // Waits here while the machine is running as many browsers as it can take
+        AdmissionController.admit();
         try {
-            switch (browserName.toLowerCase()) {
-                case CHROME:
-                    driver = createChromeDriver();
-                    break;
-                case FIREFOX:
-                    driver = createFirefoxDriver();
-                    break;
-                case EDGE:
-                    driver = createEdgeDriver();
-                    break;
-                default:
-                    logger.error("Unsupported browser: " + browserName);
-                    throw new IllegalArgumentException("Unsupported browser: " + browserName);
+            if (DriverPool.isEnabled()) {
+                driver = DriverPool.acquire(browserName, () -> createDriver(browserName));
+                applyTimeouts(driver);
+                // Warm the next scenario's browser while this one runs
+                DriverPrefetcher.prefetch(browserName, () -> createDriver(browserName));
+            } else {
+                driver = createDriver(browserName);
             }
             
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
-            driver.manage().window().maximize();
-            
             setDriver(driver);
-            logger.info("Driver initialized successfully for browser: " + browserName);
+            logger.info("Driver initialized successfully for browser: {}", browserName);
             
         } catch (Exception e) {
-            logger.error("Failed to initialize driver for browser: " + browserName, e);
+            AdmissionController.release();
+            logger.error("Failed to initialize driver for browser: {}", browserName, e);
             throw new RuntimeException("Driver initialization failed", e);
         }
         
         return driver;
     }
     
+    private static WebDriver createDriver(String browserName) {
+        WebDriver driver;
+        
+        switch (browserName.toLowerCase()) {
+            case CHROME:
+                driver = createChromeDriver();
+                break;
+            case FIREFOX:
+                driver = createFirefoxDriver();
+                break;
+            case EDGE:
+                driver = createEdgeDriver();
+                break;
+            default:
+                logger.error("Unsupported browser: {}", browserName);
+                throw new IllegalArgumentException("Unsupported browser: " + browserName);
+        }
+        
+        applyTimeouts(driver);
+        driver.manage().window().maximize();
+        
+        return driver;
+    }
+    
+    /**
+     * Sets the configured timeouts unless the session already has them
+     */
+    private static void applyTimeouts(WebDriver driver) {
+        ConfigSnapshot config = ConfigManager.getInstance().getSnapshot();
+        String timeouts = config.getImplicitWait() + "/" + config.getPageLoadTimeout() + "/" + config.getScriptTimeout();
+        if (timeouts.equals(appliedTimeouts.get(driver))) {
+            return;
+        }
+        driver.manage().timeouts().implicitlyWait(config.getImplicitWaitDuration());
+        driver.manage().timeouts().pageLoadTimeout(config.getPageLoadTimeoutDuration());
+        driver.manage().timeouts().scriptTimeout(config.getScriptTimeoutDuration());
+        appliedTimeouts.put(driver, timeouts);
+    }
+    
     public static WebDriver initializeRemoteDriver(String browserName, String hubUrl) {
         WebDriver driver = null;
         
         try {
-            DesiredCapabilities capabilities = new DesiredCapabilities();
+            Capabilities capabilities;
+            CapabilityTemplate template = CapabilityTemplates.get(CapabilityTemplates.REMOTE_GRID);
             
             switch (browserName.toLowerCase()) {
                 case CHROME:
-                    capabilities.setBrowserName("chrome");
+                    capabilities = template.newChromeOptions();
                     break;
                 case FIREFOX:
-                    capabilities.setBrowserName("firefox");
+                    capabilities = template.newFirefoxOptions();
                     break;
                 case EDGE:
-                    capabilities.setBrowserName("MicrosoftEdge");
+                    capabilities = template.newEdgeOptions();
                     break;
                 default:
-                    logger.error("Unsupported browser: " + browserName);
+                    logger.error("Unsupported browser: {}", browserName);
                     throw new IllegalArgumentException("Unsupported browser: " + browserName);
             }
             
             driver = new RemoteWebDriver(new URL(hubUrl), capabilities);
-            driver.manage().timeouts().implicitlyWait(Duration.ofSeconds(10));
-            driver.manage().timeouts().pageLoadTimeout(Duration.ofSeconds(30));
+            applyTimeouts(driver);
             driver.manage().window().maximize();
             
             setDriver(driver);
-            logger.info("Remote driver initialized successfully for browser: " + browserName);
+            logger.info("Remote driver initialized successfully for browser: {}", browserName);
             
         } catch (MalformedURLException e) {
-            logger.error("Invalid hub URL: " + hubUrl, e);
+            logger.error("Invalid hub URL: {}", hubUrl, e);
             throw new RuntimeException("Invalid hub URL", e);
         } catch (Exception e) {
-            logger.error("Failed to initialize remote driver for browser: " + browserName, e);
+            logger.error("Failed to initialize remote driver for browser: {}", browserName, e);
             throw new RuntimeException("Remote driver initialization failed", e);
         }
         
@@ -127,11 +177,40 @@ public class DriverManager {
         return DriverUtils.createEdgeDriver();
     }
     
+    /**
+     * Ends the current thread's session: pooled sessions go back to the pool, others are quit
+     */
+    public static void releaseDriver() {
+        WebDriver driver = getRawDriver();
+        if (driver == null) {
+            // A scenario whose setup failed before the driver was set may still hold a browser slot
+            AdmissionController.release();
+            return;
+        }
+        if (!DriverPool.isLeased(driver)) {
+            quitDriver();
+            return;
+        }
+        try {
+            DriverPool.release(driver);
+            logger.info("Driver returned to pool");
+        } catch (Exception e) {
+            logger.error("Error while returning driver to pool", e);
+        } finally {
+            removeDriver();
+        }
+    }
+    
     public static void quitDriver() {
-        WebDriver driver = getDriver();
+        WebDriver driver = getRawDriver();
         if (driver != null) {
             try {
-                driver.quit();
+                if (DriverPool.isLeased(driver)) {
+                    DriverPool.discard(driver);
+                } else {
+                    driver.quit();
+                    BrowserProfileManager.release(driver);
+                }
                 logger.info("Driver quit successfully");
             } catch (Exception e) {
                 logger.error("Error while quitting driver", e);
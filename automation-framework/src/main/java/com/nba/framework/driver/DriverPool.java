@@ -0,0 +1,480 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.chromium.HasCdp;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, per-browser-type pool of warm browser sessions.
+ * Sessions are scrubbed when they are returned: extra windows are closed, and on Chromium the cookies,
+ * HTTP cache and every storage type (local/session storage, IndexedDB, Cache Storage, service workers)
+ * of each origin the session visited are cleared. Browsers without CDP cannot be scrubbed that thoroughly
+ * and are recycled instead. Sessions are also recycled once they exceed the configured number of uses or age. Every live browser the pool
+ * owns - idle, leased or still launching - holds one driver.max.live.browsers permit.
+ */
+public class DriverPool {
+
+    private static final Logger logger = LogManager.getLogger(DriverPool.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final String BLANK_PAGE = "about:blank";
+    private static final Map<String, Object> NO_PARAMETERS = Collections.emptyMap();
+
+    private static final Map<String, Deque<PooledDriver>> idleSessions = new ConcurrentHashMap<>();
+    private static final Map<WebDriver, PooledDriver> leasedSessions = new ConcurrentHashMap<>();
+
+    private static final AtomicLong hits = new AtomicLong();
+    private static final AtomicLong misses = new AtomicLong();
+    private static final AtomicLong recycled = new AtomicLong();
+    // Set by shutdown; a prefetched browser that finishes launching afterwards is quit instead of parked
+    private static volatile boolean closed;
+
+    private static final ResizableSemaphore liveBrowsers = new ResizableSemaphore(config.getMaxLiveBrowsers());
+    // The permit count liveBrowsers was sized for; follows driver.max.live.browsers on reload
+    private static volatile int liveBrowserLimit = config.getMaxLiveBrowsers();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(DriverPool::shutdown, "driver-pool-shutdown"));
+        config.addChangeListener((previous, current) ->
+            resizeLiveBrowserLimit(current.getMaxLiveBrowsers()));
+    }
+
+    private DriverPool() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isDriverPoolEnabled();
+    }
+
+    /**
+     * Hands out a warm session for the browser type, launching a new one through the factory on a miss
+     */
+    public static WebDriver acquire(String browserName, Supplier<WebDriver> factory) {
+        String key = browserName.toLowerCase();
+        Deque<PooledDriver> idle = idleQueue(key);
+
+        PooledDriver session = pollHealthy(idle);
+        if (session == null && DriverPrefetcher.awaitPending(key)) {
+            // A background launch for this browser type was in flight; take its result
+            session = pollHealthy(idle);
+        }
+        if (session != null) {
+            hits.incrementAndGet();
+            return lease(session);
+        }
+
+        misses.incrementAndGet();
+        return lease(launch(key, factory));
+    }
+
+    /**
+     * Launches a session in the background and parks it in the idle queue. Skipped (returns false)
+     * when the idle queue is already full or no live-browser permit is free.
+     */
+    static boolean addPrefetched(String browserName, Supplier<WebDriver> factory) {
+        Deque<PooledDriver> idle = idleQueue(browserName);
+        if (closed || idle.size() >= config.getDriverPoolMaxIdle() || !liveBrowsers.tryAcquire()) {
+            return false;
+        }
+        PooledDriver session;
+        try {
+            session = new PooledDriver(browserName, factory.get(), true);
+        } catch (RuntimeException e) {
+            liveBrowsers.release();
+            throw e;
+        }
+        if (closed) {
+            retire(session, "pool closed during launch");
+            return false;
+        }
+        idle.offerLast(session);
+        // shutdown may have drained the idle queues between the check and the offer
+        if (closed && idle.remove(session)) {
+            retire(session, "pool closed during launch");
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Whether the sessions in hand will not cover the next round of scenarios: each leased session is wanted
+     * again by its thread, but those due for recycling will not come back, so only they need a spare
+     */
+    static boolean needsSpare(String browserName) {
+        int leased = 0;
+        int returning = 0;
+        for (PooledDriver session : leasedSessions.values()) {
+            if (session.getBrowserName().equals(browserName)) {
+                leased++;
+                if (!isDueForRecycle(session)) {
+                    returning++;
+                }
+            }
+        }
+        return getIdleCount(browserName) + returning < leased;
+    }
+
+    /**
+     * A lease that will be retired on release: out of uses, or within a scenario's length of max age
+     */
+    private static boolean isDueForRecycle(PooledDriver session) {
+        long marginMillis = config.getScenarioDurationDefaultSeconds() * 1000L;
+        return session.getUses() >= config.getDriverPoolMaxUses()
+            || session.getAgeMillis() + marginMillis >= config.getDriverPoolMaxAgeSeconds() * 1000L;
+    }
+
+    /**
+     * Returns a session to the pool, or quits it when it is due for recycling or cannot be scrubbed
+     */
+    public static void release(WebDriver driver) {
+        PooledDriver session = leasedSessions.remove(driver);
+        if (session == null) {
+            quitQuietly(driver);
+            return;
+        }
+
+        if (session.getUses() >= config.getDriverPoolMaxUses()) {
+            retire(session, "max uses reached");
+            return;
+        }
+        if (isExpired(session)) {
+            retire(session, "max age reached");
+            return;
+        }
+        if (!scrub(session.getDriver())) {
+            retire(session, "scrub failed");
+            return;
+        }
+
+        Deque<PooledDriver> idle = idleQueue(session.getBrowserName());
+        if (idle.size() >= config.getDriverPoolMaxIdle()) {
+            retire(session, "pool full");
+            return;
+        }
+        // LIFO keeps the most recently used (warmest) session at the head
+        idle.offerFirst(session);
+        logger.debug("Session returned to {} pool (uses: {})", session.getBrowserName(), session.getUses());
+    }
+
+    /**
+     * Removes a leased session from the pool and quits it instead of returning it
+     */
+    public static void discard(WebDriver driver) {
+        PooledDriver session = leasedSessions.remove(driver);
+        if (session != null) {
+            retire(session, "discarded by caller");
+        } else {
+            quitQuietly(driver);
+        }
+    }
+
+    public static boolean isLeased(WebDriver driver) {
+        return driver != null && leasedSessions.containsKey(driver);
+    }
+
+    /**
+     * Quits every idle session and every prefetched session still launching. Leased sessions are left to their owners.
+     */
+    public static void shutdown() {
+        closed = true;
+        DriverPrefetcher.shutdown();
+        for (Deque<PooledDriver> idle : idleSessions.values()) {
+            PooledDriver session;
+            while ((session = idle.pollFirst()) != null) {
+                retire(session, "shutdown");
+            }
+        }
+    }
+
+    public static long getHits() {
+        return hits.get();
+    }
+
+    public static long getMisses() {
+        return misses.get();
+    }
+
+    public static long getRecycled() {
+        return recycled.get();
+    }
+
+    public static double getHitRatio() {
+        long total = hits.get() + misses.get();
+        return total == 0 ? 0.0 : (double) hits.get() / total;
+    }
+
+    public static int getIdleCount() {
+        int count = 0;
+        for (Deque<PooledDriver> idle : idleSessions.values()) {
+            count += idle.size();
+        }
+        return count;
+    }
+
+    public static String getMetricsSummary() {
+        return String.format("Driver pool - hits: %d, misses: %d, hit ratio: %.1f%%, recycled: %d, idle: %d, leased: %d",
+            hits.get(), misses.get(), getHitRatio() * 100, recycled.get(), getIdleCount(), leasedSessions.size());
+    }
+
+    private static Deque<PooledDriver> idleQueue(String browserName) {
+        return idleSessions.computeIfAbsent(browserName, key -> new LinkedBlockingDeque<>());
+    }
+
+    public static int getIdleCount(String browserName) {
+        Deque<PooledDriver> idle = idleSessions.get(browserName.toLowerCase());
+        return idle == null ? 0 : idle.size();
+    }
+
+    /**
+     * Takes a live-browser permit for a short-lived browser outside the pool, without blocking
+     */
+    static boolean tryReserveLiveBrowser() {
+        return liveBrowsers.tryAcquire();
+    }
+
+    static void releaseLiveBrowser() {
+        liveBrowsers.release();
+    }
+
+    public static int getLiveBrowserCount() {
+        return liveBrowserLimit - liveBrowsers.availablePermits();
+    }
+
+    /**
+     * Adds or withdraws live-browser permits; browsers over a lowered limit finish their leases and are not replaced
+     */
+    private static synchronized void resizeLiveBrowserLimit(int limit) {
+        int delta = Math.max(1, limit) - liveBrowserLimit;
+        if (delta == 0) {
+            return;
+        }
+        if (delta > 0) {
+            liveBrowsers.release(delta);
+        } else {
+            liveBrowsers.shrink(-delta);
+        }
+        liveBrowserLimit += delta;
+        logger.info("Live browser limit changed to {}", liveBrowserLimit);
+    }
+
+    private static PooledDriver pollHealthy(Deque<PooledDriver> idle) {
+        PooledDriver session;
+        while ((session = idle.pollFirst()) != null) {
+            if (isExpired(session)) {
+                retire(session, "max age reached");
+            } else if (!isResponsive(session)) {
+                retire(session, "session unresponsive");
+            } else {
+                return session;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Launches a session on the calling thread once a live-browser permit is available.
+     * Idle sessions are evicted first so a full pool never blocks a scenario.
+     */
+    private static PooledDriver launch(String browserName, Supplier<WebDriver> factory) {
+        acquireLivePermit();
+        try {
+            return new PooledDriver(browserName, factory.get(), false);
+        } catch (RuntimeException e) {
+            liveBrowsers.release();
+            throw e;
+        }
+    }
+
+    private static void acquireLivePermit() {
+        if (liveBrowsers.tryAcquire()) {
+            return;
+        }
+        for (Deque<PooledDriver> idle : idleSessions.values()) {
+            PooledDriver evicted = idle.pollLast();
+            if (evicted != null) {
+                retire(evicted, "live browser limit reached");
+                if (liveBrowsers.tryAcquire()) {
+                    return;
+                }
+            }
+        }
+        try {
+            if (!liveBrowsers.tryAcquire(config.getDriverLaunchTimeoutSeconds(), TimeUnit.SECONDS)) {
+                throw new RuntimeException("Timed out waiting for a free browser slot (driver.max.live.browsers="
+                    + liveBrowserLimit + ")");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for a free browser slot", e);
+        }
+    }
+
+    private static WebDriver lease(PooledDriver session) {
+        if (session.isPrefetched() && session.getUses() == 0) {
+            DriverPrefetcher.recordConsumed();
+        }
+        session.markLeased();
+        leasedSessions.put(session.getDriver(), session);
+        return session.getDriver();
+    }
+
+    private static boolean isExpired(PooledDriver session) {
+        return session.getAgeMillis() >= config.getDriverPoolMaxAgeSeconds() * 1000L;
+    }
+
+    private static boolean isResponsive(PooledDriver session) {
+        try {
+            session.getDriver().getWindowHandle();
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private static void retire(PooledDriver session, String reason) {
+        recycled.incrementAndGet();
+        if (session.isPrefetched() && session.getUses() == 0) {
+            DriverPrefetcher.recordWasted();
+        }
+        logger.info("Recycling {} session after {} uses: {}", session.getBrowserName(), session.getUses(), reason);
+        try {
+            quitQuietly(session.getDriver());
+        } finally {
+            liveBrowsers.release();
+        }
+    }
+
+    private static void quitQuietly(WebDriver driver) {
+        try {
+            driver.quit();
+        } catch (Exception e) {
+            logger.warn("Error while quitting pooled driver: {}", e.getMessage());
+        } finally {
+            BrowserProfileManager.release(driver);
+        }
+    }
+
+    /**
+     * Resets a session to a clean state: one blank window, no cookies, no HTTP cache and no storage for any
+     * origin the session visited. Returns false, so the session is recycled, when that cannot be guaranteed.
+     */
+    static boolean scrub(WebDriver driver) {
+        if (!(driver instanceof HasCdp)) {
+            // Without CDP only the open documents' storage is reachable; other origins would leak into the next scenario
+            logger.debug("{} cannot clear storage per origin", driver.getClass().getSimpleName());
+            return false;
+        }
+        HasCdp cdp = (HasCdp) driver;
+        try {
+            List<String> handles = new ArrayList<>(driver.getWindowHandles());
+            String keep = handles.isEmpty() ? null : handles.get(0);
+            Set<String> origins = new LinkedHashSet<>();
+
+            for (String handle : handles) {
+                driver.switchTo().window(handle);
+                collectOrigins(cdp, origins);
+                if (!handle.equals(keep)) {
+                    driver.close();
+                }
+            }
+            if (keep != null) {
+                driver.switchTo().window(keep);
+            }
+
+            for (String origin : origins) {
+                Map<String, Object> parameters = new HashMap<>();
+                parameters.put("origin", origin);
+                parameters.put("storageTypes", "all");
+                cdp.executeCdpCommand("Storage.clearDataForOrigin", parameters);
+            }
+            // Cookies and the HTTP cache are cleared for every domain, not just the visited origins
+            cdp.executeCdpCommand("Network.clearBrowserCookies", NO_PARAMETERS);
+            cdp.executeCdpCommand("Network.clearBrowserCache", NO_PARAMETERS);
+            driver.get(BLANK_PAGE);
+            logger.debug("Scrubbed pooled session: {} origins cleared", origins.size());
+
+            Set<String> remaining = driver.getWindowHandles();
+            return remaining.size() == 1;
+        } catch (Exception e) {
+            logger.warn("Failed to scrub pooled session: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Adds the origins of the current window's navigation history and of every frame in its current page
+     */
+    private static void collectOrigins(HasCdp cdp, Set<String> origins) {
+        Object entries = cdp.executeCdpCommand("Page.getNavigationHistory", NO_PARAMETERS).get("entries");
+        if (entries instanceof List) {
+            for (Object entry : (List<?>) entries) {
+                if (entry instanceof Map) {
+                    addOrigin(origins, ((Map<?, ?>) entry).get("url"));
+                }
+            }
+        }
+        collectFrameOrigins(cdp.executeCdpCommand("Page.getFrameTree", NO_PARAMETERS).get("frameTree"), origins);
+    }
+
+    private static void collectFrameOrigins(Object frameTree, Set<String> origins) {
+        if (!(frameTree instanceof Map)) {
+            return;
+        }
+        Object frame = ((Map<?, ?>) frameTree).get("frame");
+        if (frame instanceof Map) {
+            addOrigin(origins, ((Map<?, ?>) frame).get("url"));
+        }
+        Object children = ((Map<?, ?>) frameTree).get("childFrames");
+        if (children instanceof List) {
+            for (Object child : (List<?>) children) {
+                collectFrameOrigins(child, origins);
+            }
+        }
+    }
+
+    private static void addOrigin(Set<String> origins, Object url) {
+        if (url == null) {
+            return;
+        }
+        try {
+            URI uri = URI.create(url.toString());
+            if (("http".equals(uri.getScheme()) || "https".equals(uri.getScheme())) && uri.getHost() != null) {
+                origins.add(uri.getScheme() + "://" + uri.getHost() + (uri.getPort() >= 0 ? ":" + uri.getPort() : ""));
+            }
+        } catch (IllegalArgumentException e) {
+            logger.debug("Ignoring unparseable URL in session history: {}", url);
+        }
+    }
+
+    /**
+     * A fair semaphore whose permit count can be lowered while permits are held
+     */
+    private static final class ResizableSemaphore extends Semaphore {
+
+        ResizableSemaphore(int permits) {
+            super(permits, true);
+        }
+
+        void shrink(int permits) {
+            reducePermits(permits);
+        }
+    }
+}
@@ -0,0 +1,208 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Launches a replacement browser in the background while the current scenario runs, parking it in
+ * {@link DriverPool} so the next setUp finds a warm session. Only sessions that will be recycled instead of
+ * returning to the pool are replaced; at most one launch per browser type is in flight, and launches never
+ * exceed driver.max.live.browsers.
+ */
+public class DriverPrefetcher {
+
+    private static final Logger logger = LogManager.getLogger(DriverPrefetcher.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final Map<String, CompletableFuture<Boolean>> pending = new ConcurrentHashMap<>();
+    private static final ThreadPoolExecutor executor = new ThreadPoolExecutor(
+        Math.max(1, config.getDriverPrefetchThreads()), Math.max(1, config.getDriverPrefetchThreads()),
+        0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), new PrefetchThreadFactory());
+
+    private static final AtomicLong launched = new AtomicLong();
+    private static final AtomicLong consumed = new AtomicLong();
+    private static final AtomicLong wasted = new AtomicLong();
+    private static final AtomicLong throttled = new AtomicLong();
+    private static final AtomicLong failed = new AtomicLong();
+    private static final AtomicLong waits = new AtomicLong();
+    private static final AtomicLong waitNanos = new AtomicLong();
+
+    static {
+        config.addChangeListener((previous, current) ->
+            resizeThreads(Math.max(1, current.getDriverPrefetchThreads())));
+    }
+
+    private DriverPrefetcher() {
+    }
+
+    private static synchronized void resizeThreads(int threads) {
+        if (threads == executor.getCorePoolSize()) {
+            return;
+        }
+        // The maximum must never drop below the core size, so the order depends on the direction
+        if (threads > executor.getMaximumPoolSize()) {
+            executor.setMaximumPoolSize(threads);
+            executor.setCorePoolSize(threads);
+        } else {
+            executor.setCorePoolSize(threads);
+            executor.setMaximumPoolSize(threads);
+        }
+        logger.info("Prefetch threads changed to {}", threads);
+    }
+
+    public static boolean isEnabled() {
+        return DriverPool.isEnabled() && config.isDriverPrefetchEnabled();
+    }
+
+    /**
+     * Starts launching a spare session for the browser type when a leased session is due for recycling
+     * and no idle or launching session covers it
+     */
+    public static void prefetch(String browserName, Supplier<WebDriver> factory) {
+        if (!isEnabled() || executor.isShutdown()) {
+            return;
+        }
+        String key = browserName.toLowerCase();
+        if (DriverPool.getIdleCount(key) >= config.getDriverPoolMaxIdle() || !DriverPool.needsSpare(key)) {
+            return;
+        }
+        if (AdmissionController.isOverloaded()) {
+            throttled.incrementAndGet();
+            return;
+        }
+        CompletableFuture<Boolean> launch = new CompletableFuture<>();
+        if (pending.putIfAbsent(key, launch) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> runPrefetch(key, factory, launch));
+        } catch (RuntimeException e) {
+            pending.remove(key, launch);
+            launch.complete(false);
+        }
+    }
+
+    /**
+     * Blocks until an in-flight launch for the browser type finishes.
+     * Returns false straight away when nothing is launching.
+     */
+    static boolean awaitPending(String browserName) {
+        CompletableFuture<Boolean> launch = pending.get(browserName);
+        if (launch == null) {
+            return false;
+        }
+        long start = System.nanoTime();
+        try {
+            return launch.get(config.getDriverLaunchTimeoutSeconds(), TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (TimeoutException | ExecutionException e) {
+            return false;
+        } finally {
+            waits.incrementAndGet();
+            waitNanos.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    static void recordConsumed() {
+        consumed.incrementAndGet();
+    }
+
+    static void recordWasted() {
+        wasted.incrementAndGet();
+    }
+
+    /**
+     * Stops accepting prefetches, drops queued ones and waits up to driver.launch.timeout.seconds for launches
+     * in flight. They are not interrupted: an interrupted launch can leave a browser nobody quits, whereas one
+     * that completes after DriverPool has closed quits its browser itself.
+     */
+    public static void shutdown() {
+        executor.shutdown();
+        executor.getQueue().clear();
+        try {
+            if (!executor.awaitTermination(config.getDriverLaunchTimeoutSeconds(), TimeUnit.SECONDS)) {
+                logger.warn("Prefetch launches still running at shutdown; their browsers are quit when they finish");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // Launches that never started must not leave an acquire waiting on them
+        for (CompletableFuture<Boolean> launch : pending.values()) {
+            launch.complete(false);
+        }
+    }
+
+    public static long getLaunched() {
+        return launched.get();
+    }
+
+    public static long getConsumed() {
+        return consumed.get();
+    }
+
+    public static long getWasted() {
+        return wasted.get();
+    }
+
+    public static long getTotalWaitMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(waitNanos.get());
+    }
+
+    public static String getMetricsSummary() {
+        long waitCount = waits.get();
+        long averageWait = waitCount == 0 ? 0 : getTotalWaitMillis() / waitCount;
+        return String.format("Driver prefetch - launched: %d, consumed: %d, wasted: %d, throttled: %d, failed: %d, "
+                + "waits: %d (total %d ms, avg %d ms)",
+            launched.get(), consumed.get(), wasted.get(), throttled.get(), failed.get(),
+            waitCount, getTotalWaitMillis(), averageWait);
+    }
+
+    private static void runPrefetch(String browserName, Supplier<WebDriver> factory, CompletableFuture<Boolean> launch) {
+        boolean added = false;
+        try {
+            added = DriverPool.addPrefetched(browserName, factory);
+            if (added) {
+                launched.incrementAndGet();
+                logger.info("Prefetched {} session is ready", browserName);
+            } else {
+                throttled.incrementAndGet();
+                logger.debug("Prefetch skipped for {}: pool full or live browser limit reached", browserName);
+            }
+        } catch (Exception e) {
+            failed.incrementAndGet();
+            logger.warn("Prefetch launch failed for {}: {}", browserName, e.getMessage());
+        } finally {
+            pending.remove(browserName, launch);
+            launch.complete(added);
+        }
+    }
+
+    private static class PrefetchThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger counter = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "driver-prefetch-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
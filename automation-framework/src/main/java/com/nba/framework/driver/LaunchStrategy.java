@@ -0,0 +1,21 @@
+package com.nba.framework.driver;
+
+/**
+ * The offline ways DriverUtils can start a local browser, in their default priority order
+ */
+public enum LaunchStrategy {
+
+    PROJECT_DRIVER("Strategy 1: project driver"),
+    SYSTEM_PATH("Strategy 2: system PATH driver"),
+    DRIVER_CACHE("Strategy 3: cached driver");
+
+    private final String description;
+
+    LaunchStrategy(String description) {
+        this.description = description;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+}
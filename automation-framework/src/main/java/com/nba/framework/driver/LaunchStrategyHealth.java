@@ -0,0 +1,263 @@
+package com.nba.framework.driver;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-host, per-browser record of which launch strategies work, persisted to a small properties file.
+ * Strategies that failed recently are moved behind the ones that work, so launches go straight to the
+ * last working strategy. Once a failure's back-off expires the strategy is re-probed on a background
+ * thread rather than on a scenario's critical path; failures are forgotten after the decay window.
+ * Parallel JVMs share the file, so saving locks it, re-reads it and applies only this JVM's changes.
+ */
+public class LaunchStrategyHealth {
+
+    private static final Logger logger = LogManager.getLogger(LaunchStrategyHealth.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final String FAILURES = ".failures";
+    private static final String LAST_FAILURE = ".lastFailure";
+    private static final String LAST_SUCCESS = ".lastSuccess";
+
+    private static final String HOST = resolveHostName();
+    private static final Properties records = new Properties();
+    // Changes since the last save, applied to the file as it is at save time; a null value removes the key
+    private static final Map<String, String> pending = new HashMap<>();
+    private static final Set<String> probesInFlight = ConcurrentHashMap.newKeySet();
+    private static final ExecutorService prober = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "launch-strategy-prober");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static boolean loaded;
+
+    private LaunchStrategyHealth() {
+    }
+
+    /**
+     * Strategies to try for a browser: healthy ones in priority order, then the ones backing off.
+     * Strategies whose back-off has expired are re-probed in the background.
+     */
+    public static synchronized List<LaunchStrategy> order(String browserType) {
+        load();
+        long now = System.currentTimeMillis();
+        List<LaunchStrategy> healthy = new ArrayList<>();
+        List<LaunchStrategy> failing = new ArrayList<>();
+
+        for (LaunchStrategy strategy : LaunchStrategy.values()) {
+            String key = key(browserType, strategy);
+            int failures = getInt(key + FAILURES);
+            long lastFailure = getLong(key + LAST_FAILURE);
+
+            if (failures > 0 && now - lastFailure > TimeUnit.MINUTES.toMillis(config.getLaunchHealthDecayMinutes())) {
+                failures = 0;
+                remove(key + FAILURES);
+            }
+            if (failures == 0) {
+                healthy.add(strategy);
+            } else {
+                failing.add(strategy);
+                if (now - lastFailure > backoffMillis(failures)) {
+                    scheduleProbe(browserType, strategy);
+                }
+            }
+        }
+
+        healthy.addAll(failing);
+        return healthy;
+    }
+
+    public static synchronized void recordSuccess(String browserType, LaunchStrategy strategy) {
+        load();
+        String key = key(browserType, strategy);
+        boolean changed = remove(key + FAILURES);
+        set(key + LAST_SUCCESS, String.valueOf(System.currentTimeMillis()));
+        if (changed) {
+            logger.info("{} is healthy again for {}", strategy.getDescription(), browserType);
+        }
+        save();
+    }
+
+    public static synchronized void recordFailure(String browserType, LaunchStrategy strategy) {
+        load();
+        String key = key(browserType, strategy);
+        int failures = getInt(key + FAILURES) + 1;
+        set(key + FAILURES, String.valueOf(failures));
+        set(key + LAST_FAILURE, String.valueOf(System.currentTimeMillis()));
+        logger.info("{} failed for {} ({} consecutive), backing off {}s", strategy.getDescription(), browserType,
+            failures, TimeUnit.MILLISECONDS.toSeconds(backoffMillis(failures)));
+        save();
+    }
+
+    /**
+     * Exponential back-off: the base interval doubled per consecutive failure, capped at the decay window
+     */
+    private static long backoffMillis(int failures) {
+        long base = TimeUnit.SECONDS.toMillis(config.getLaunchHealthBackoffSeconds());
+        long cap = TimeUnit.MINUTES.toMillis(config.getLaunchHealthDecayMinutes());
+        return Math.min(cap, base << Math.min(failures - 1, 16));
+    }
+
+    private static void scheduleProbe(String browserType, LaunchStrategy strategy) {
+        String key = key(browserType, strategy);
+        if (!probesInFlight.add(key)) {
+            return;
+        }
+        try {
+            prober.execute(() -> {
+                try {
+                    probe(browserType, strategy);
+                } finally {
+                    probesInFlight.remove(key);
+                }
+            });
+        } catch (RuntimeException e) {
+            probesInFlight.remove(key);
+        }
+    }
+
+    private static void probe(String browserType, LaunchStrategy strategy) {
+        if (!DriverPool.tryReserveLiveBrowser()) {
+            logger.debug("Skipping probe of {} for {}: live browser limit reached", strategy, browserType);
+            return;
+        }
+        try {
+            logger.info("Re-probing {} for {} in the background", strategy.getDescription(), browserType);
+            WebDriver driver = DriverUtils.launch(browserType, strategy);
+            try {
+                driver.quit();
+            } finally {
+                BrowserProfileManager.release(driver);
+            }
+            recordSuccess(browserType, strategy);
+        } catch (Exception e) {
+            recordFailure(browserType, strategy);
+        } finally {
+            DriverPool.releaseLiveBrowser();
+        }
+    }
+
+    private static String key(String browserType, LaunchStrategy strategy) {
+        return HOST + "." + browserType + "." + strategy.name();
+    }
+
+    private static void set(String key, String value) {
+        records.setProperty(key, value);
+        pending.put(key, value);
+    }
+
+    private static boolean remove(String key) {
+        pending.put(key, null);
+        return records.remove(key) != null;
+    }
+
+    private static int getInt(String key) {
+        try {
+            return Integer.parseInt(records.getProperty(key, "0"));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static long getLong(String key) {
+        try {
+            return Long.parseLong(records.getProperty(key, "0"));
+        } catch (NumberFormatException e) {
+            return 0L;
+        }
+    }
+
+    private static void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        Path file = Paths.get(config.getLaunchHealthFile());
+        try {
+            records.putAll(read(file));
+        } catch (IOException e) {
+            logger.warn("Could not read launch strategy health file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Properties read(Path file) throws IOException {
+        Properties properties = new Properties();
+        if (Files.exists(file)) {
+            try (InputStream inputStream = Files.newInputStream(file)) {
+                properties.load(inputStream);
+            }
+        }
+        return properties;
+    }
+
+    /**
+     * Applies this JVM's changes to the file under an exclusive lock, so concurrent JVMs do not drop each
+     * other's records, and picks up what they recorded
+     */
+    private static void save() {
+        Path file = Paths.get(config.getLaunchHealthFile()).toAbsolutePath();
+        Path directory = file.getParent();
+        try {
+            Files.createDirectories(directory);
+            Path lockFile = directory.resolve(file.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Properties merged = read(file);
+                for (Map.Entry<String, String> change : pending.entrySet()) {
+                    if (change.getValue() == null) {
+                        merged.remove(change.getKey());
+                    } else {
+                        merged.setProperty(change.getKey(), change.getValue());
+                    }
+                }
+                // Write-then-rename so readers outside the lock never see a half-written file
+                Path temp = Files.createTempFile(directory, "launch-health", ".tmp");
+                try {
+                    try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                        merged.store(outputStream, "Launch strategy health per host and browser");
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                pending.clear();
+                records.clear();
+                records.putAll(merged);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write launch strategy health file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static String resolveHostName() {
+        try {
+            return InetAddress.getLocalHost().getHostName();
+        } catch (IOException e) {
+            return "localhost";
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.nba.framework.driver;
+
+import org.openqa.selenium.WebDriver;
+
+/**
+ * A live browser session owned by {@link DriverPool}, with the bookkeeping needed for recycling
+ */
+class PooledDriver {
+
+    private final String browserName;
+    private final WebDriver driver;
+    private final long createdAtMillis;
+    private final boolean prefetched;
+    // Read by other scenario threads deciding whether a spare session is needed
+    private volatile int uses;
+
+    PooledDriver(String browserName, WebDriver driver, boolean prefetched) {
+        this.browserName = browserName;
+        this.driver = driver;
+        this.prefetched = prefetched;
+        this.createdAtMillis = System.currentTimeMillis();
+    }
+
+    String getBrowserName() {
+        return browserName;
+    }
+
+    WebDriver getDriver() {
+        return driver;
+    }
+
+    boolean isPrefetched() {
+        return prefetched;
+    }
+
+    int getUses() {
+        return uses;
+    }
+
+    void markLeased() {
+        uses++;
+    }
+
+    long getAgeMillis() {
+        return System.currentTimeMillis() - createdAtMillis;
+    }
+}
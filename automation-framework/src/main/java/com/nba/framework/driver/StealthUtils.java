@@ -48,7 +48,7 @@ public class StealthUtils {
             logger.info("Stealth techniques applied successfully");
             
         } catch (Exception e) {
-            logger.warn("Failed to apply some stealth techniques: " + e.getMessage());
+            logger.warn("Failed to apply some stealth techniques: {}", e.getMessage());
         }
     }
 }
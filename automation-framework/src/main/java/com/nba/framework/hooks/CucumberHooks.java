@@ -1,14 +1,32 @@
 package com.nba.framework.hooks;
 
 import com.nba.framework.config.ConfigManager;
+import com.nba.framework.driver.DriverInstrumentation;
 import com.nba.framework.driver.DriverManager;
+import com.nba.framework.driver.AdmissionController;
+import com.nba.framework.driver.DriverPool;
+import com.nba.framework.driver.DriverPrefetcher;
+import com.nba.framework.logging.ScenarioLogCapture;
+import com.nba.framework.pages.WaitEngine;
+import com.nba.framework.runner.ScenarioSchedule;
+import com.nba.framework.utils.ArtifactStore;
+import com.nba.framework.utils.FileWriterRegistry;
+import com.nba.framework.utils.ScreencastRecorder;
 import com.nba.framework.utils.ScreenshotUtils;
+import com.nba.framework.visual.VisualDiffResult;
 import io.cucumber.java.After;
+import io.cucumber.java.AfterAll;
 import io.cucumber.java.Before;
 import io.cucumber.java.Scenario;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
 public class CucumberHooks {
     
     private static final Logger logger = LogManager.getLogger(CucumberHooks.class);
@@ -16,7 +34,10 @@ public class CucumberHooks {
     
     @Before
     public void setUp(Scenario scenario) {
-        logger.info("Starting scenario: " + scenario.getName());
+        // A configuration reload while the scenario runs applies from the next scenario on
+        config.pinSnapshot();
+        ScenarioLogCapture.start(scenario.getName());
+        logger.info("Starting scenario: {}", scenario.getName());
         
         // Initialize driver based on configuration
         if (config.isRemoteExecution()) {
@@ -28,28 +49,108 @@ public class CucumberHooks {
             DriverManager.initializeDriver(config.getBrowser());
         }
         
-        logger.info("Driver initialized for scenario: " + scenario.getName());
+        logger.info("Driver initialized for scenario: {}", scenario.getName());
+        // The clock starts once initializeDriver has admitted the scenario, so queueing for a browser slot
+        // does not count as scenario duration
+        ScenarioSchedule.scenarioStarted();
+        ScreencastRecorder.start(DriverManager.getRawDriver());
     }
     
     @After
     public void tearDown(Scenario scenario) {
-        logger.info("Finishing scenario: " + scenario.getName() + " - Status: " + scenario.getStatus());
+        logger.info("Finishing scenario: {} - Status: {}", scenario.getName(), scenario.getStatus());
         
-        // Capture screenshot if scenario failed
-        if (scenario.isFailed()) {
-            String screenshotPath = ScreenshotUtils.captureScreenshot(scenario.getName());
-            if (screenshotPath != null) {
-                // Attach screenshot to Cucumber report
-                byte[] screenshot = ScreenshotUtils.captureScreenshotAsBytes();
-                if (screenshot != null) {
-                    scenario.attach(screenshot, "image/png", "Screenshot");
-                    logger.info("Screenshot attached to failed scenario: " + scenario.getName());
+        VisualDiffResult visualDiff = null;
+        try {
+            CompletableFuture<ScreenshotUtils.Screenshot> screenshot = null;
+            CompletableFuture<ScreenshotUtils.Screenshot> screencast = null;
+            try {
+                // Compare the final screen of a passing scenario with its visual baseline
+                if (config.isVisualRegressionEnabled() && !scenario.isFailed()) {
+                    // Outline examples share a name, so the baseline is keyed by feature file and line as well
+                    visualDiff = ScreenshotUtils.compareWithBaseline(
+                        ScenarioSchedule.key(scenario.getUri(), scenario.getLine()) + "_" + scenario.getName());
+                }
+                
+                // Capture screenshot if scenario failed; it is written in the background while the driver is released
+                if (scenario.isFailed()) {
+                    screenshot = ScreenshotUtils.captureAsync(scenario.getName());
                 }
+                
+                screencast = ScreencastRecorder.stop(scenario.getName(), scenario.isFailed());
+            } finally {
+                // Return driver to the pool (or quit it when pooling is disabled), giving back its live-browser
+                // permit and admission slot even when a capture above failed
+                DriverManager.releaseDriver();
+                logger.info("Driver released for scenario: {}", scenario.getName());
+            }
+            
+            // Attach screenshot and screencast to Cucumber report
+            if (screenshot != null) {
+                attachScreenshot(scenario, screenshot, "Screenshot", config.getScreenshotAttachTimeoutMs());
+            }
+            if (screencast != null) {
+                attachScreenshot(scenario, screencast, "Screencast", config.getVideoAttachTimeoutMs());
+            }
+            
+            if (visualDiff != null && !visualDiff.isMatch()) {
+                attachVisualDiff(scenario, visualDiff);
+            }
+        } finally {
+            // Keep the scenario's buffered log only when it failed
+            byte[] scenarioLog = ScenarioLogCapture.finish(scenario.isFailed());
+            try {
+                if (scenarioLog != null) {
+                    scenario.attach(scenarioLog, "text/plain", "Scenario log");
+                }
+                FileWriterRegistry.flushAll();
+            } finally {
+                ScenarioSchedule.scenarioFinished(scenario);
+                config.unpinSnapshot();
             }
         }
         
-        // Quit driver
-        DriverManager.quitDriver();
-        logger.info("Driver quit for scenario: " + scenario.getName());
+        if (visualDiff != null && !visualDiff.isMatch() && config.isVisualRegressionFailOnDiff()) {
+            throw new AssertionError(visualDiff.toString());
+        }
+    }
+    
+    private void attachVisualDiff(Scenario scenario, VisualDiffResult visualDiff) {
+        scenario.attach(visualDiff.toReport(), "text/plain", "Visual diff report");
+        if (visualDiff.getMaskPath() != null) {
+            try {
+                scenario.attach(Files.readAllBytes(Paths.get(visualDiff.getMaskPath())), "image/png", "Visual diff mask");
+            } catch (IOException e) {
+                logger.warn("Visual diff mask not attached to scenario: {} - {}", scenario.getName(), e);
+            }
+        }
+    }
+    
+    private void attachScreenshot(Scenario scenario, CompletableFuture<ScreenshotUtils.Screenshot> screenshot, String title,
+                                  long timeoutMillis) {
+        try {
+            ScreenshotUtils.Screenshot written = screenshot.get(timeoutMillis, TimeUnit.MILLISECONDS);
+            scenario.attach(written.getBytes(), written.getMimeType(), title);
+            logger.info("{} attached to failed scenario: {}", title, scenario.getName());
+        } catch (Exception e) {
+            logger.warn("{} not attached to scenario: {} - {}", title, scenario.getName(), e);
+        }
+    }
+    
+    @AfterAll
+    public static void afterAll() {
+        ScreenshotUtils.awaitPendingWrites(config.getScreenshotAttachTimeoutMs());
+        logger.info(ScreenshotUtils.getMetricsSummary());
+        logger.info(ScreencastRecorder.getMetricsSummary());
+        ArtifactStore.finishRun();
+        ScenarioSchedule.finishRun();
+        logger.info(ArtifactStore.getMetricsSummary());
+        FileWriterRegistry.closeAll();
+        logger.info(FileWriterRegistry.getMetricsSummary());
+        logger.info(DriverPool.getMetricsSummary());
+        logger.info(DriverPrefetcher.getMetricsSummary());
+        logger.info(AdmissionController.getMetricsSummary());
+        logger.info(WaitEngine.getMetricsSummary());
+        DriverInstrumentation.dumpReport();
     }
 }
@@ -0,0 +1,44 @@
+package com.nba.framework.logging;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.filter.AbstractFilter;
+
+/**
+ * Matches events logged inside a captured scenario below the given level (WARN by default).
+ * Used with onMatch="DENY" on file appenders, so routine scenario output only reaches disk through
+ * the per-scenario log of a failed scenario.
+ */
+@Plugin(name = "ScenarioEventFilter", category = Core.CATEGORY_NAME, elementType = Filter.ELEMENT_TYPE, printObject = true)
+public final class ScenarioEventFilter extends AbstractFilter {
+
+    private final Level level;
+
+    private ScenarioEventFilter(Level level, Result onMatch, Result onMismatch) {
+        super(onMatch, onMismatch);
+        this.level = level;
+    }
+
+    @PluginFactory
+    public static ScenarioEventFilter createFilter(
+            @PluginAttribute(value = "level", defaultString = "WARN") String level,
+            @PluginAttribute("onMatch") Result onMatch,
+            @PluginAttribute("onMismatch") Result onMismatch) {
+        return new ScenarioEventFilter(Level.toLevel(level, Level.WARN),
+            onMatch == null ? Result.DENY : onMatch,
+            onMismatch == null ? Result.NEUTRAL : onMismatch);
+    }
+
+    @Override
+    public Result filter(LogEvent event) {
+        boolean inScenario = event.getContextData().getValue(ScenarioLogAppender.SCENARIO_KEY) != null;
+        return inScenario && event.getLevel().isLessSpecificThan(level) && !event.getLevel().equals(level)
+            ? onMatch
+            : onMismatch;
+    }
+}
@@ -0,0 +1,144 @@
+package com.nba.framework.logging;
+
+import org.apache.logging.log4j.core.Appender;
+import org.apache.logging.log4j.core.Core;
+import org.apache.logging.log4j.core.Filter;
+import org.apache.logging.log4j.core.Layout;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.apache.logging.log4j.core.config.Property;
+import org.apache.logging.log4j.core.config.plugins.Plugin;
+import org.apache.logging.log4j.core.config.plugins.PluginAttribute;
+import org.apache.logging.log4j.core.config.plugins.PluginElement;
+import org.apache.logging.log4j.core.config.plugins.PluginFactory;
+import org.apache.logging.log4j.core.layout.PatternLayout;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the last N formatted events of every running scenario in memory, keyed by the
+ * scenarioId ThreadContext entry that {@link ScenarioLogCapture} sets. Events without one are ignored.
+ * A scenario's buffer is handed over and dropped when its end event (logged on the control logger) arrives.
+ */
+@Plugin(name = "ScenarioLog", category = Core.CATEGORY_NAME, elementType = Appender.ELEMENT_TYPE, printObject = true)
+public final class ScenarioLogAppender extends AbstractAppender {
+
+    public static final String SCENARIO_KEY = "scenarioId";
+    /** Logger whose events mark the end of a scenario; routed only to this appender */
+    public static final String CONTROL_LOGGER = "nba.scenario.control";
+
+    private static final int DEFAULT_SIZE = 2000;
+
+    private static final Map<String, EventRing> buffers = new ConcurrentHashMap<>();
+    private static final Map<String, CompletableFuture<List<String>>> drains = new ConcurrentHashMap<>();
+    private static volatile boolean active;
+
+    private final int size;
+
+    private ScenarioLogAppender(String name, Filter filter, Layout<? extends Serializable> layout, int size) {
+        super(name, filter, layout, true, Property.EMPTY_ARRAY);
+        this.size = size;
+    }
+
+    @PluginFactory
+    public static ScenarioLogAppender createAppender(
+            @PluginAttribute("name") String name,
+            @PluginAttribute(value = "size", defaultInt = DEFAULT_SIZE) int size,
+            @PluginElement("Layout") Layout<? extends Serializable> layout,
+            @PluginElement("Filter") Filter filter) {
+        if (layout == null) {
+            layout = PatternLayout.newBuilder()
+                .withPattern("%d{yyyy-MM-dd HH:mm:ss.SSS} [%t] %-5level %logger{36} - %msg%n%throwable")
+                .build();
+        }
+        return new ScenarioLogAppender(name == null ? "ScenarioLog" : name, filter, layout, Math.max(1, size));
+    }
+
+    /**
+     * Whether a ScenarioLog appender is configured and running
+     */
+    public static boolean isActive() {
+        return active;
+    }
+
+    @Override
+    public void start() {
+        super.start();
+        active = true;
+    }
+
+    @Override
+    public boolean stop(long timeout, java.util.concurrent.TimeUnit timeUnit) {
+        active = false;
+        return super.stop(timeout, timeUnit);
+    }
+
+    @Override
+    public void append(LogEvent event) {
+        String scenarioId = event.getContextData().getValue(SCENARIO_KEY);
+        if (scenarioId == null) {
+            return;
+        }
+        if (CONTROL_LOGGER.equals(event.getLoggerName())) {
+            EventRing ring = buffers.remove(scenarioId);
+            CompletableFuture<List<String>> drain = drains.remove(scenarioId);
+            if (drain != null) {
+                drain.complete(ring == null ? Collections.emptyList() : ring.snapshot());
+            }
+            return;
+        }
+        // Async loggers recycle event objects, so keep the formatted text rather than the event
+        buffers.computeIfAbsent(scenarioId, key -> new EventRing(size)).add(getLayout().toSerializable(event).toString());
+    }
+
+    /**
+     * Registers interest in a scenario's buffer; completes once the scenario's end event has been appended
+     */
+    static CompletableFuture<List<String>> drain(String scenarioId) {
+        return drains.computeIfAbsent(scenarioId, key -> new CompletableFuture<>());
+    }
+
+    static void abandon(String scenarioId) {
+        drains.remove(scenarioId);
+        buffers.remove(scenarioId);
+    }
+
+    /**
+     * Fixed-capacity ring of formatted lines; once full, each new line overwrites the oldest
+     */
+    private static final class EventRing {
+
+        private final String[] lines;
+        private int next;
+        private long written;
+
+        EventRing(int capacity) {
+            this.lines = new String[capacity];
+        }
+
+        synchronized void add(String line) {
+            lines[next] = line;
+            next = (next + 1) % lines.length;
+            written++;
+        }
+
+        synchronized List<String> snapshot() {
+            int count = (int) Math.min(written, lines.length);
+            List<String> ordered = new ArrayList<>(count + 1);
+            if (written > lines.length) {
+                ordered.add("... " + (written - lines.length) + " earlier events dropped ..." + System.lineSeparator());
+            }
+            int start = written > lines.length ? next : 0;
+            for (int i = 0; i < count; i++) {
+                ordered.add(lines[(start + i) % lines.length]);
+            }
+            return ordered;
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.nba.framework.logging;
+
+import com.nba.framework.config.ConfigManager;
+import com.nba.framework.utils.FileUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.ThreadContext;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tags everything logged on the scenario thread with a scenario id so {@link ScenarioLogAppender} can
+ * buffer it, and on finish writes the buffer to its own file when the scenario failed or discards it otherwise.
+ */
+public final class ScenarioLogCapture {
+
+    private static final Logger logger = LogManager.getLogger(ScenarioLogCapture.class);
+    private static final Logger control = LogManager.getLogger(ScenarioLogAppender.CONTROL_LOGGER);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final long DRAIN_TIMEOUT_MS = 2000;
+    private static final AtomicLong sequence = new AtomicLong();
+
+    private ScenarioLogCapture() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isScenarioLogCaptureEnabled() && ScenarioLogAppender.isActive();
+    }
+
+    /**
+     * Starts buffering this thread's log events under a new id derived from the scenario name
+     */
+    public static void start(String scenarioName) {
+        if (!isEnabled()) {
+            return;
+        }
+        ThreadContext.put(ScenarioLogAppender.SCENARIO_KEY,
+            FileUtils.toSafeFileName(scenarioName) + "_" + sequence.incrementAndGet());
+    }
+
+    /**
+     * Stops buffering for this thread. When the scenario failed, writes the buffered events to
+     * scenario.log.path and returns them for attaching to the report; otherwise returns null.
+     */
+    public static byte[] finish(boolean failed) {
+        String scenarioId = ThreadContext.get(ScenarioLogAppender.SCENARIO_KEY);
+        if (scenarioId == null) {
+            return null;
+        }
+
+        List<String> lines = Collections.emptyList();
+        try {
+            // Loggers are asynchronous: the end marker is appended after every earlier event from this
+            // thread, so the drain completes with the complete buffer. WARN keeps it clear of the discard policy.
+            CompletableFuture<List<String>> drain = ScenarioLogAppender.drain(scenarioId);
+            control.warn("End of scenario {}", scenarioId);
+            if (failed) {
+                lines = drain.get(DRAIN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+            }
+        } catch (Exception e) {
+            logger.warn("Could not collect log buffer for scenario {}: {}", scenarioId, e.toString());
+            ScenarioLogAppender.abandon(scenarioId);
+        } finally {
+            ThreadContext.remove(ScenarioLogAppender.SCENARIO_KEY);
+        }
+
+        if (!failed || lines.isEmpty()) {
+            return null;
+        }
+        String content = String.join("", lines);
+        String filePath = config.getScenarioLogPath() + scenarioId + "_" + FileUtils.getTimestamp() + ".log";
+        FileUtils.writeToFile(filePath, content);
+        logger.info("Scenario log written to: {}", filePath);
+        return content.getBytes(StandardCharsets.UTF_8);
+    }
+}
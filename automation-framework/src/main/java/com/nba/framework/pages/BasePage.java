@@ -1,15 +1,18 @@
 package com.nba.framework.pages;
 
+import com.nba.framework.config.ConfigManager;
 import com.nba.framework.driver.DriverManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.*;
-import org.openqa.selenium.support.ui.ExpectedConditions;
 import org.openqa.selenium.support.ui.WebDriverWait;
 import org.springframework.stereotype.Component;
 
 import java.time.Duration;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Component
 public abstract class BasePage {
@@ -17,44 +20,47 @@ public abstract class BasePage {
     protected static final Logger logger = LogManager.getLogger(BasePage.class);
     protected WebDriver driver;
     protected WebDriverWait wait;
+    // explicit.wait from the scenario's configuration snapshot
+    protected final Duration timeout;
     
     public BasePage() {
         this.driver = DriverManager.getDriver();
-        this.wait = new WebDriverWait(driver, Duration.ofSeconds(10));
+        this.timeout = ConfigManager.getInstance().getSnapshot().getExplicitWaitDuration();
+        this.wait = new WebDriverWait(driver, timeout);
     }
     
     protected void click(By locator) {
         try {
-            wait.until(ExpectedConditions.elementToBeClickable(locator));
+            awaitCondition(WaitEngine.Condition.CLICKABLE, locator);
             driver.findElement(locator).click();
-            logger.info("Clicked element: " + locator);
+            logger.debug("Clicked element: {}", locator);
         } catch (Exception e) {
-            logger.error("Failed to click element: " + locator, e);
+            logger.error("Failed to click element: {}", locator, e);
             throw new RuntimeException("Click action failed", e);
         }
     }
     
     protected void sendKeys(By locator, String text) {
         try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            awaitCondition(WaitEngine.Condition.VISIBLE, locator);
             WebElement element = driver.findElement(locator);
             element.clear();
             element.sendKeys(text);
-            logger.info("Entered text '" + text + "' in element: " + locator);
+            logger.debug("Entered text '{}' in element: {}", text, locator);
         } catch (Exception e) {
-            logger.error("Failed to send keys to element: " + locator, e);
+            logger.error("Failed to send keys to element: {}", locator, e);
             throw new RuntimeException("Send keys action failed", e);
         }
     }
     
     protected String getText(By locator) {
         try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
+            awaitCondition(WaitEngine.Condition.VISIBLE, locator);
             String text = driver.findElement(locator).getText();
-            logger.info("Retrieved text '" + text + "' from element: " + locator);
+            logger.debug("Retrieved text '{}' from element: {}", text, locator);
             return text;
         } catch (Exception e) {
-            logger.error("Failed to get text from element: " + locator, e);
+            logger.error("Failed to get text from element: {}", locator, e);
             throw new RuntimeException("Get text action failed", e);
         }
     }
@@ -76,53 +82,226 @@ public abstract class BasePage {
         }
     }
     
+    /**
+     * Zero-wait presence check; returns immediately when the element is absent
+     */
+    protected boolean isPresentNow(By locator) {
+        return ElementProbe.isPresent(driver, locator);
+    }
+    
+    /**
+     * Zero-wait visibility check; returns immediately when the element is absent or hidden
+     */
+    protected boolean isVisibleNow(By locator) {
+        return ElementProbe.isVisible(driver, locator);
+    }
+    
+    /**
+     * Waits up to the timeout for the element to exist, returning false instead of throwing
+     */
+    protected boolean waitForPresence(By locator, Duration timeout) {
+        return ElementProbe.waitForPresence(driver, locator, timeout);
+    }
+    
+    /**
+     * Waits up to the timeout for the element to be visible, returning false instead of throwing
+     */
+    protected boolean waitForVisibility(By locator, Duration timeout) {
+        return ElementProbe.waitForVisibility(driver, locator, timeout);
+    }
+    
+    /**
+     * Reads the given fields from every container matching the locator in a single script call.
+     * Field specs are CSS selectors relative to the container, optionally suffixed with @attribute.
+     */
+    protected List<ExtractedRow> extractRows(By container, Map<String, String> fields) {
+        try {
+            List<ExtractedRow> rows = ElementExtractor.extract(driver, container, fields);
+            logger.debug("Extracted {} rows from: {}", rows.size(), container);
+            return rows;
+        } catch (Exception e) {
+            logger.error("Failed to extract rows from: {}", container, e);
+            throw new RuntimeException("Extract rows action failed", e);
+        }
+    }
+    
     protected void waitForElementToBeVisible(By locator) {
         try {
-            wait.until(ExpectedConditions.visibilityOfElementLocated(locator));
-            logger.info("Element is visible: " + locator);
+            awaitCondition(WaitEngine.Condition.VISIBLE, locator);
+            logger.debug("Element is visible: {}", locator);
         } catch (Exception e) {
-            logger.error("Element not visible: " + locator, e);
+            logger.error("Element not visible: {}", locator, e);
             throw new RuntimeException("Element visibility wait failed", e);
         }
     }
     
     protected void waitForElementToBeClickable(By locator) {
         try {
-            wait.until(ExpectedConditions.elementToBeClickable(locator));
-            logger.info("Element is clickable: " + locator);
+            awaitCondition(WaitEngine.Condition.CLICKABLE, locator);
+            logger.debug("Element is clickable: {}", locator);
         } catch (Exception e) {
-            logger.error("Element not clickable: " + locator, e);
+            logger.error("Element not clickable: {}", locator, e);
             throw new RuntimeException("Element clickability wait failed", e);
         }
     }
     
     protected List<WebElement> findElements(By locator) {
         try {
-            wait.until(ExpectedConditions.presenceOfAllElementsLocatedBy(locator));
+            awaitCondition(WaitEngine.Condition.PRESENT, locator);
             return driver.findElements(locator);
         } catch (Exception e) {
-            logger.error("Failed to find elements: " + locator, e);
+            logger.error("Failed to find elements: {}", locator, e);
             throw new RuntimeException("Find elements action failed", e);
         }
     }
     
     protected WebElement findElement(By locator) {
         try {
-            wait.until(ExpectedConditions.presenceOfElementLocated(locator));
+            awaitCondition(WaitEngine.Condition.PRESENT, locator);
             return driver.findElement(locator);
         } catch (Exception e) {
-            logger.error("Failed to find element: " + locator, e);
+            logger.error("Failed to find element: {}", locator, e);
             throw new RuntimeException("Find element action failed", e);
         }
     }
     
+    /**
+     * Clicks via JavaScript, so overlays cannot intercept the click, and returns once the URL changes
+     * and the new page has loaded. Throws if no navigation happened within the timeout.
+     */
+    protected void clickAndAwaitNavigation(WebElement element, Duration timeout) {
+        long start = System.currentTimeMillis();
+        String urlBefore = driver.getCurrentUrl();
+        jsClick(element);
+        if (!WaitEngine.awaitUrlChange(driver, urlBefore, timeout)) {
+            logger.error("No navigation within {}s of click, still on: {}", timeout.getSeconds(), urlBefore);
+            throw new RuntimeException("Navigation action failed: still on " + urlBefore);
+        }
+        WaitEngine.await(driver, WaitEngine.Condition.PAGE_READY, null, timeout);
+        if (logger.isInfoEnabled()) {
+            logger.info("Navigated to {} in {} ms", driver.getCurrentUrl(), System.currentTimeMillis() - start);
+        }
+    }
+    
+    protected void clickAndAwaitNavigation(By locator, Duration timeout) {
+        clickAndAwaitNavigation(findElement(locator), timeout);
+    }
+    
+    /**
+     * Clicks via JavaScript and waits for whatever the click does: a navigation, or an in-page re-render such
+     * as the category and filter links of single-page storefronts. Returns once the page has settled; throws
+     * if the click neither navigated nor changed the DOM structure within the timeout.
+     */
+    protected void clickAndAwaitPageUpdate(WebElement element, Duration timeout) {
+        long start = System.currentTimeMillis();
+        String urlBefore = driver.getCurrentUrl();
+        WaitEngine.trackNetwork(driver);
+        WaitEngine.trackChanges(driver);
+        jsClick(element);
+        awaitDomSettle(timeout);
+        if (!WaitEngine.pageChangedSince(driver, urlBefore)) {
+            // The old page can look settled before a full navigation gets going
+            Duration remaining = timeout.minusMillis(System.currentTimeMillis() - start);
+            if (remaining.isNegative() || remaining.isZero() || !WaitEngine.awaitUrlChange(driver, urlBefore, remaining)) {
+                logger.error("Click neither navigated nor changed the page within {}s, still on: {}",
+                    timeout.getSeconds(), urlBefore);
+                throw new RuntimeException("Page update failed: click changed nothing on " + urlBefore);
+            }
+            WaitEngine.await(driver, WaitEngine.Condition.PAGE_READY, null, timeout);
+            awaitDomSettle(timeout);
+        }
+        if (logger.isInfoEnabled()) {
+            logger.info("Page updated in {} ms. Current URL: {}", System.currentTimeMillis() - start, driver.getCurrentUrl());
+        }
+    }
+    
+    protected void clickAndAwaitPageUpdate(By locator, Duration timeout) {
+        clickAndAwaitPageUpdate(findElement(locator), timeout);
+    }
+    
+    /**
+     * Clicks via JavaScript and switches to the window the click opens. If the click navigates the current
+     * window instead, waits for that page to load and returns false. Throws if the click did neither within
+     * the timeout, so callers can retry it.
+     */
+    protected boolean clickAndAwaitNewWindow(WebElement element, Duration timeout) {
+        long start = System.currentTimeMillis();
+        Set<String> handlesBefore = new HashSet<>(driver.getWindowHandles());
+        String urlBefore = driver.getCurrentUrl();
+        jsClick(element);
+    
+        String newHandle;
+        try {
+            newHandle = new WebDriverWait(driver, timeout, Duration.ofMillis(100)).until(webDriver -> {
+                for (String handle : webDriver.getWindowHandles()) {
+                    if (!handlesBefore.contains(handle)) {
+                        return handle;
+                    }
+                }
+                // Empty marks a same-window navigation
+                return urlBefore.equals(webDriver.getCurrentUrl()) ? null : "";
+            });
+        } catch (TimeoutException e) {
+            logger.warn("Click opened no window and did not navigate within {}s", timeout.getSeconds());
+            throw new RuntimeException("Click opened no window and did not navigate: still on " + urlBefore, e);
+        }
+    
+        if (!newHandle.isEmpty()) {
+            driver.switchTo().window(newHandle);
+        }
+        WaitEngine.await(driver, WaitEngine.Condition.PAGE_READY, null, timeout);
+        if (logger.isInfoEnabled()) {
+            logger.info("{} in {} ms. Current URL: {}",
+                newHandle.isEmpty() ? "Navigated in the current window" : "Switched to new window",
+                System.currentTimeMillis() - start, driver.getCurrentUrl());
+        }
+        return !newHandle.isEmpty();
+    }
+    
+    protected boolean clickAndAwaitNewWindow(By locator, Duration timeout) {
+        return clickAndAwaitNewWindow(findElement(locator), timeout);
+    }
+    
+    /**
+     * Clicks via JavaScript and returns once the DOM structure and fetch/XHR traffic the click triggered have gone quiet.
+     * Returns false if the page was still busy when the timeout expired.
+     */
+    protected boolean clickAndAwaitDomSettle(WebElement element, Duration timeout) {
+        WaitEngine.trackNetwork(driver);
+        jsClick(element);
+        return awaitDomSettle(timeout);
+    }
+    
+    protected boolean clickAndAwaitDomSettle(By locator, Duration timeout) {
+        return clickAndAwaitDomSettle(findElement(locator), timeout);
+    }
+    
+    /**
+     * Waits for the DOM structure and fetch/XHR traffic to stay idle for WaitEngine.DEFAULT_QUIET_PERIOD.
+     * A page that never goes quiet is not an error: the caller proceeds once the timeout expires.
+     */
+    public boolean awaitDomSettle(Duration timeout) {
+        long start = System.currentTimeMillis();
+        boolean settled = WaitEngine.awaitDomSettle(driver, WaitEngine.DEFAULT_QUIET_PERIOD, timeout);
+        if (settled) {
+            logger.debug("Page settled in {} ms", System.currentTimeMillis() - start);
+        } else {
+            logger.debug("Page still busy after {}s, proceeding", timeout.getSeconds());
+        }
+        return settled;
+    }
+    
+    private void jsClick(WebElement element) {
+        ((JavascriptExecutor) driver).executeScript("arguments[0].click();", element);
+    }
+    
     protected void scrollToElement(By locator) {
         try {
             WebElement element = driver.findElement(locator);
             ((JavascriptExecutor) driver).executeScript("arguments[0].scrollIntoView(true);", element);
-            logger.info("Scrolled to element: " + locator);
+            logger.debug("Scrolled to element: {}", locator);
         } catch (Exception e) {
-            logger.error("Failed to scroll to element: " + locator, e);
+            logger.error("Failed to scroll to element: {}", locator, e);
             throw new RuntimeException("Scroll action failed", e);
         }
     }
@@ -131,18 +310,27 @@ public abstract class BasePage {
         try {
             WebElement element = driver.findElement(locator);
             ((JavascriptExecutor) driver).executeScript("arguments[0].dispatchEvent(new Event('mouseover'));", element);
-            logger.info("Hovered over element: " + locator);
+            logger.debug("Hovered over element: {}", locator);
         } catch (Exception e) {
-            logger.error("Failed to hover over element: " + locator, e);
+            logger.error("Failed to hover over element: {}", locator, e);
             throw new RuntimeException("Hover action failed", e);
         }
     }
     
+    /**
+     * Blocks on a single event-driven wait, throwing TimeoutException after the explicit wait
+     */
+    private void awaitCondition(WaitEngine.Condition condition, By locator) {
+        if (!WaitEngine.await(driver, condition, locator, timeout)) {
+            throw new TimeoutException("Timed out after " + timeout.getSeconds() + "s waiting for "
+                + condition + (locator != null ? ": " + locator : ""));
+        }
+    }
+    
     protected void waitForPageLoad() {
         try {
-            wait.until(webDriver -> ((JavascriptExecutor) webDriver)
-                    .executeScript("return document.readyState").equals("complete"));
-            logger.info("Page loaded successfully");
+            awaitCondition(WaitEngine.Condition.PAGE_READY, null);
+            logger.debug("Page loaded successfully");
         } catch (Exception e) {
             logger.error("Page load wait failed", e);
             throw new RuntimeException("Page load wait failed", e);
@@ -153,9 +341,9 @@ public abstract class BasePage {
         try {
             driver.get(url);
             waitForPageLoad();
-            logger.info("Navigated to URL: " + url);
+            logger.info("Navigated to URL: {}", url);
         } catch (Exception e) {
-            logger.error("Failed to navigate to URL: " + url, e);
+            logger.error("Failed to navigate to URL: {}", url, e);
             throw new RuntimeException("Navigation failed", e);
         }
     }
@@ -163,7 +351,7 @@ public abstract class BasePage {
     public String getCurrentUrl() {
         try {
             String url = driver.getCurrentUrl();
-            logger.info("Current URL: " + url);
+            logger.debug("Current URL: {}", url);
             return url;
         } catch (Exception e) {
             logger.error("Failed to get current URL", e);
@@ -174,7 +362,7 @@ public abstract class BasePage {
     public String getPageTitle() {
         try {
             String title = driver.getTitle();
-            logger.info("Page title: " + title);
+            logger.debug("Page title: {}", title);
             return title;
         } catch (Exception e) {
             logger.error("Failed to get page title", e);
@@ -0,0 +1,123 @@
+package com.nba.framework.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.WebDriver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads fields out of every element matching a container locator in one injected script,
+ * instead of a findElement + getText round trip per field per container.
+ *
+ * Field specs are relative to each container:
+ * "css" reads the visible text of the first match, "css@attr" reads an attribute of it,
+ * "@attr" reads an attribute of the container itself and "" reads the container's own text.
+ * The attribute separator is the first '@' outside brackets and quotes, so "a[href^='mailto:x@y']@href" works.
+ */
+public final class ElementExtractor {
+
+    private static final String EXTRACT_SCRIPT = LocatorScript.FIND_ALL
+        + "var containers = nbaFindAll(arguments[0], arguments[1], document), fields = arguments[2], rows = [];"
+        + "function visibleText(el) {"
+        + "  return el.getClientRects().length === 0 ? '' : (el.innerText || '').trim();"
+        + "}"
+        + "function attribute(el, name) {"
+        + "  var property = el[name];"
+        + "  return typeof property === 'string' ? property : el.getAttribute(name);"
+        + "}"
+        + "for (var i = 0; i < containers.length; i++) {"
+        + "  var row = {};"
+        + "  for (var j = 0; j < fields.length; j++) {"
+        + "    var field = fields[j], target = field[1] ? containers[i].querySelector(field[1]) : containers[i];"
+        + "    row[field[0]] = !target ? null : field[2] ? attribute(target, field[2]) : visibleText(target);"
+        + "  }"
+        + "  rows.push(row);"
+        + "}"
+        + "return rows;";
+
+    private ElementExtractor() {
+    }
+
+    /**
+     * Extracts the given fields from every container, in document order
+     */
+    public static List<ExtractedRow> extract(WebDriver driver, By container, Map<String, String> fields) {
+        Object[] locator = LocatorScript.arguments(container);
+        if (locator == null) {
+            throw new IllegalArgumentException("Container locator cannot be evaluated in the page: " + container);
+        }
+
+        List<List<String>> fieldSpecs = new ArrayList<>();
+        for (Map.Entry<String, String> field : fields.entrySet()) {
+            fieldSpecs.add(parseFieldSpec(field.getKey(), field.getValue()));
+        }
+
+        Object result = ((JavascriptExecutor) driver).executeScript(EXTRACT_SCRIPT, locator[0], locator[1], fieldSpecs);
+        if (!(result instanceof List)) {
+            return Collections.emptyList();
+        }
+
+        List<?> rawRows = (List<?>) result;
+        List<ExtractedRow> rows = new ArrayList<>(rawRows.size());
+        for (int i = 0; i < rawRows.size(); i++) {
+            Map<?, ?> rawRow = rawRows.get(i) instanceof Map ? (Map<?, ?>) rawRows.get(i) : Collections.emptyMap();
+            Map<String, String> values = new LinkedHashMap<>();
+            for (String field : fields.keySet()) {
+                Object value = rawRow.get(field);
+                values.put(field, value == null ? null : String.valueOf(value));
+            }
+            rows.add(new ExtractedRow(i, values));
+        }
+        return rows;
+    }
+
+    /**
+     * Splits "selector@attribute" into [field, selector, attribute]; the attribute is empty for text fields
+     */
+    private static List<String> parseFieldSpec(String field, String spec) {
+        String selector = spec == null ? "" : spec.trim();
+        String attribute = "";
+        int at = attributeSeparator(selector);
+        if (at >= 0) {
+            attribute = selector.substring(at + 1).trim();
+            selector = selector.substring(0, at).trim();
+        }
+        List<String> parsed = new ArrayList<>(3);
+        parsed.add(field);
+        parsed.add(selector);
+        parsed.add(attribute);
+        return parsed;
+    }
+
+    /**
+     * Index of the first '@' that is not inside an attribute selector or a quoted string, or -1
+     */
+    private static int attributeSeparator(String spec) {
+        int brackets = 0;
+        char quote = 0;
+        for (int i = 0; i < spec.length(); i++) {
+            char c = spec.charAt(i);
+            if (quote != 0) {
+                if (c == '\\') {
+                    i++;
+                } else if (c == quote) {
+                    quote = 0;
+                }
+            } else if (c == '\'' || c == '"') {
+                quote = c;
+            } else if (c == '[') {
+                brackets++;
+            } else if (c == ']') {
+                brackets = Math.max(0, brackets - 1);
+            } else if (c == '@' && brackets == 0) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,98 @@
+package com.nba.framework.pages;
+
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Zero-wait element checks that run as a single script in the page.
+ * Unlike findElement they never sit out the session's implicit wait, and because they never touch
+ * the implicit-wait setting they are safe to call from any number of parallel sessions.
+ * The exception is composite locators (ByChained, ByAll), which the page script cannot evaluate: they
+ * fall back to findElements and wait out the implicit wait when nothing matches.
+ */
+public final class ElementProbe {
+
+    /** Element state returned by a probe */
+    public enum State {
+        ABSENT, PRESENT, VISIBLE
+    }
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(100);
+
+    // Resolves the locator to its first match and reports 0 = absent, 1 = present, 2 = visible
+    private static final String PROBE_SCRIPT = LocatorScript.FIND_ALL + LocatorScript.IS_VISIBLE
+        + "var el = nbaFindAll(arguments[0], arguments[1], document)[0];"
+        + "return !el ? 0 : nbaIsVisible(el) ? 2 : 1;";
+
+    private ElementProbe() {
+    }
+
+    /**
+     * Reports whether the first element matching the locator is absent, present or visible, without waiting
+     */
+    public static State probe(WebDriver driver, By locator) {
+        Object[] arguments = LocatorScript.arguments(locator);
+        if (arguments == null) {
+            // Composite locators (ByChained, ByAll) cannot be evaluated in the page
+            return probeWithWebDriver(driver, locator);
+        }
+        Object result = ((JavascriptExecutor) driver).executeScript(PROBE_SCRIPT, arguments);
+        int state = result instanceof Number ? ((Number) result).intValue() : 0;
+        return state >= 2 ? State.VISIBLE : state == 1 ? State.PRESENT : State.ABSENT;
+    }
+
+    public static boolean isPresent(WebDriver driver, By locator) {
+        return probe(driver, locator) != State.ABSENT;
+    }
+
+    public static boolean isVisible(WebDriver driver, By locator) {
+        return probe(driver, locator) == State.VISIBLE;
+    }
+
+    /**
+     * Polls until an element matching the locator exists or the timeout expires
+     */
+    public static boolean waitForPresence(WebDriver driver, By locator, Duration timeout) {
+        return waitFor(driver, locator, timeout, State.PRESENT);
+    }
+
+    /**
+     * Polls until an element matching the locator is visible or the timeout expires
+     */
+    public static boolean waitForVisibility(WebDriver driver, By locator, Duration timeout) {
+        return waitFor(driver, locator, timeout, State.VISIBLE);
+    }
+
+    private static boolean waitFor(WebDriver driver, By locator, Duration timeout, State minimum) {
+        if (probe(driver, locator).compareTo(minimum) >= 0) {
+            return true;
+        }
+        if (timeout.isZero() || timeout.isNegative()) {
+            return false;
+        }
+        try {
+            return new WebDriverWait(driver, timeout, POLL_INTERVAL)
+                .until(webDriver -> probe(webDriver, locator).compareTo(minimum) >= 0);
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Waits out the session's implicit wait when nothing matches
+     */
+    private static State probeWithWebDriver(WebDriver driver, By locator) {
+        List<WebElement> elements = driver.findElements(locator);
+        if (elements.isEmpty()) {
+            return State.ABSENT;
+        }
+        return elements.get(0).isDisplayed() ? State.VISIBLE : State.PRESENT;
+    }
+}
@@ -0,0 +1,69 @@
+package com.nba.framework.pages;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * One container's worth of fields returned by {@link ElementExtractor}, in the order they were requested.
+ * A field is null when its selector matched nothing inside the container.
+ */
+public final class ExtractedRow {
+
+    private final int index;
+    private final Map<String, String> fields;
+
+    public ExtractedRow(int index, Map<String, String> fields) {
+        this.index = index;
+        this.fields = Collections.unmodifiableMap(new LinkedHashMap<>(fields));
+    }
+
+    /**
+     * Position of the container among all matches, starting at 0
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public String get(String field) {
+        return fields.get(field);
+    }
+
+    /**
+     * Field value, or the fallback when the field matched nothing
+     */
+    public String get(String field, String fallback) {
+        String value = fields.get(field);
+        return value == null ? fallback : value;
+    }
+
+    public boolean has(String field) {
+        return fields.get(field) != null;
+    }
+
+    public Map<String, String> asMap() {
+        return fields;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
+        if (!(other instanceof ExtractedRow)) {
+            return false;
+        }
+        ExtractedRow row = (ExtractedRow) other;
+        return index == row.index && fields.equals(row.fields);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * index + fields.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ExtractedRow" + index + fields;
+    }
+}
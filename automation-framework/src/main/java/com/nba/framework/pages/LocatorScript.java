@@ -0,0 +1,65 @@
+package com.nba.framework.pages;
+
+import org.openqa.selenium.By;
+
+/**
+ * In-page JavaScript counterpart of Selenium's locator strategies, shared by the scripts that
+ * resolve elements without a WebDriver round trip per lookup
+ */
+final class LocatorScript {
+
+    /** Defines nbaFindAll(using, value, root), returning every match of a W3C or legacy locator as an array */
+    static final String FIND_ALL =
+        "function nbaFindAll(using, value, root) {"
+        + "  function byLinkText(partial) {"
+        + "    var links = root.getElementsByTagName('a'), found = [];"
+        + "    for (var i = 0; i < links.length; i++) {"
+        + "      var text = (links[i].innerText || links[i].textContent || '').trim();"
+        + "      if (partial ? text.indexOf(value) >= 0 : text === value) { found.push(links[i]); }"
+        + "    }"
+        + "    return found;"
+        + "  }"
+        + "  switch (using) {"
+        + "    case 'css selector': return Array.prototype.slice.call(root.querySelectorAll(value));"
+        + "    case 'id': return Array.prototype.slice.call(root.querySelectorAll('#' + CSS.escape(value)));"
+        + "    case 'class name': return Array.prototype.slice.call(root.querySelectorAll('.' + CSS.escape(value)));"
+        + "    case 'name': return Array.prototype.slice.call("
+        + "        root.querySelectorAll('[name=\"' + value.replace(/\"/g, '\\\\\"') + '\"]'));"
+        + "    case 'tag name': return Array.prototype.slice.call(root.getElementsByTagName(value));"
+        + "    case 'xpath':"
+        + "      var snapshot = document.evaluate(value, root, null, XPathResult.ORDERED_NODE_SNAPSHOT_TYPE, null), nodes = [];"
+        + "      for (var j = 0; j < snapshot.snapshotLength; j++) { nodes.push(snapshot.snapshotItem(j)); }"
+        + "      return nodes;"
+        + "    case 'link text': return byLinkText(false);"
+        + "    case 'partial link text': return byLinkText(true);"
+        + "    default: throw new Error('Unsupported locator strategy: ' + using);"
+        + "  }"
+        + "}";
+
+    /** Defines nbaIsVisible(el), a close approximation of WebElement.isDisplayed() */
+    static final String IS_VISIBLE =
+        "function nbaIsVisible(el) {"
+        + "  if (el.checkVisibility) {"
+        + "    if (!el.checkVisibility({opacityProperty: true, visibilityProperty: true})) { return false; }"
+        + "  } else {"
+        + "    var style = window.getComputedStyle(el);"
+        + "    if (style.display === 'none' || style.visibility === 'hidden' || style.opacity === '0') { return false; }"
+        + "  }"
+        + "  var rect = el.getBoundingClientRect();"
+        + "  return rect.width > 0 && rect.height > 0;"
+        + "}";
+
+    private LocatorScript() {
+    }
+
+    /**
+     * Script arguments (strategy, value) for a locator, or null for composite locators that only WebDriver can evaluate
+     */
+    static Object[] arguments(By locator) {
+        if (!(locator instanceof By.Remotable)) {
+            return null;
+        }
+        By.Remotable.Parameters parameters = ((By.Remotable) locator).getRemoteParameters();
+        return new Object[] {parameters.using(), String.valueOf(parameters.value())};
+    }
+}
@@ -0,0 +1,371 @@
+package com.nba.framework.pages;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.By;
+import org.openqa.selenium.JavascriptException;
+import org.openqa.selenium.JavascriptExecutor;
+import org.openqa.selenium.ScriptTimeoutException;
+import org.openqa.selenium.TimeoutException;
+import org.openqa.selenium.UnsupportedCommandException;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.WebDriverException;
+import org.openqa.selenium.support.ui.ExpectedCondition;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Event-driven waits. A single async script installs a MutationObserver and readiness listeners in the
+ * page and calls back the moment the condition holds, so a wait costs one WebDriver round trip instead
+ * of one per polling interval. Pages where the script cannot run fall back to WebDriverWait polling.
+ */
+public final class WaitEngine {
+
+    private static final Logger logger = LogManager.getLogger(WaitEngine.class);
+
+    /** What to wait for */
+    public enum Condition {
+        PRESENT("present"),
+        VISIBLE("visible"),
+        CLICKABLE("clickable"),
+        PAGE_READY("ready");
+
+        private final String scriptName;
+
+        Condition(String scriptName) {
+            this.scriptName = scriptName;
+        }
+    }
+
+    private static final ConfigManager config = ConfigManager.getInstance();
+    // A navigation aborts the script; retry on the new document a few times before giving up on events
+    private static final int MAX_SCRIPT_ABORTS = 5;
+
+    private static final String WAIT_SCRIPT = LocatorScript.FIND_ALL + LocatorScript.IS_VISIBLE
+        + "var using = arguments[0], value = arguments[1], condition = arguments[2], timeoutMillis = arguments[3];"
+        + "var done = arguments[arguments.length - 1];"
+        + "var finished = false, scheduled = false, observer = null, poll = null, timer = null;"
+        + "function satisfied() {"
+        + "  if (condition === 'ready') { return document.readyState === 'complete'; }"
+        + "  var el = nbaFindAll(using, value, document)[0];"
+        + "  if (!el) { return false; }"
+        + "  if (condition === 'present') { return true; }"
+        + "  if (!nbaIsVisible(el)) { return false; }"
+        + "  return condition === 'visible' || !el.disabled;"
+        + "}"
+        + "function finish(result) {"
+        + "  if (finished) { return; }"
+        + "  finished = true;"
+        + "  if (observer) { observer.disconnect(); }"
+        + "  clearInterval(poll);"
+        + "  clearTimeout(timer);"
+        + "  document.removeEventListener('readystatechange', check);"
+        + "  window.removeEventListener('load', check);"
+        + "  done(result);"
+        + "}"
+        + "function check() {"
+        + "  scheduled = false;"
+        + "  try { if (satisfied()) { finish(true); } } catch (e) { finish('error: ' + e.message); }"
+        + "}"
+        + "function schedule() {"
+        + "  if (!scheduled) { scheduled = true; setTimeout(check, 16); }"
+        + "}"
+        + "check();"
+        + "if (!finished) {"
+        + "  observer = new MutationObserver(schedule);"
+        + "  observer.observe(document.documentElement || document,"
+        + "      {childList: true, subtree: true, attributes: true, characterData: true});"
+        + "  document.addEventListener('readystatechange', check);"
+        + "  window.addEventListener('load', check);"
+        // Style changes from CSS transitions and layout do not produce mutations; re-check in the page
+        + "  poll = setInterval(check, 250);"
+        + "  timer = setTimeout(function () { finish(false); }, timeoutMillis);"
+        + "}";
+
+    // Counts fetch/XHR requests in flight; installed once per document
+    private static final String NETWORK_TRACKER =
+        "if (!window.__nbaNetwork) {"
+        + "  var network = window.__nbaNetwork = {inFlight: 0, lastActivity: Date.now()};"
+        + "  var started = function () { network.inFlight++; network.lastActivity = Date.now(); };"
+        + "  var finished = function () { network.inFlight = Math.max(0, network.inFlight - 1);"
+        + "      network.lastActivity = Date.now(); };"
+        + "  if (window.fetch) {"
+        + "    var originalFetch = window.fetch;"
+        + "    window.fetch = function () {"
+        + "      started();"
+        + "      try {"
+        + "        var response = originalFetch.apply(this, arguments);"
+        + "        response.then(finished, finished);"
+        + "        return response;"
+        + "      } catch (e) { finished(); throw e; }"
+        + "    };"
+        + "  }"
+        + "  var originalSend = XMLHttpRequest.prototype.send;"
+        + "  XMLHttpRequest.prototype.send = function () {"
+        + "    started();"
+        + "    this.addEventListener('loadend', finished);"
+        + "    try { return originalSend.apply(this, arguments); } catch (e) { finished(); throw e; }"
+        + "  };"
+        + "}";
+
+    // Resolves true once the URL differs from arguments[0]; a navigation that unloads the document aborts it instead
+    private static final String URL_CHANGE_SCRIPT =
+        "var from = arguments[0], timeoutMillis = arguments[1], done = arguments[arguments.length - 1];"
+        + "if (location.href !== from) { done(true); return; }"
+        + "var poll = setInterval(function () {"
+        + "  if (location.href !== from) { clearInterval(poll); clearTimeout(timer); done(true); }"
+        + "}, 50);"
+        + "var timer = setTimeout(function () { clearInterval(poll); done(false); }, timeoutMillis);";
+
+    // Resolves true once the document is loaded and neither the DOM structure nor the network has changed for
+    // arguments[0] ms. Attribute and text changes are ignored: carousels and animated banners make them nonstop.
+    private static final String DOM_SETTLE_SCRIPT = NETWORK_TRACKER
+        + "var quietMillis = arguments[0], timeoutMillis = arguments[1], done = arguments[arguments.length - 1];"
+        + "var network = window.__nbaNetwork, lastMutation = Date.now();"
+        + "var observer = new MutationObserver(function () { lastMutation = Date.now(); });"
+        + "observer.observe(document.documentElement || document, {childList: true, subtree: true});"
+        + "function finish(result) { observer.disconnect(); clearInterval(poll); clearTimeout(timer); done(result); }"
+        + "var poll = setInterval(function () {"
+        + "  var now = Date.now();"
+        + "  if (document.readyState === 'complete' && network.inFlight === 0"
+        + "      && now - lastMutation >= quietMillis && now - network.lastActivity >= quietMillis) {"
+        + "    finish(true);"
+        + "  }"
+        + "}, 50);"
+        + "var timer = setTimeout(function () { finish(false); }, timeoutMillis);";
+
+    // Counts structural DOM changes from now on; a navigation discards the counter along with the old window object
+    private static final String CHANGE_TRACKER =
+        "if (window.__nbaChanges) { window.__nbaChanges.observer.disconnect(); }"
+        + "var changes = {count: 0};"
+        + "changes.observer = new MutationObserver(function () { changes.count++; });"
+        + "changes.observer.observe(document.documentElement || document, {childList: true, subtree: true});"
+        + "window.__nbaChanges = changes;";
+
+    private static final String CHANGED_SCRIPT =
+        "return location.href !== arguments[0] || !window.__nbaChanges || window.__nbaChanges.count > 0;";
+
+    // Driver messages for a script cut off because its document was unloaded or replaced
+    private static final String[] NAVIGATION_ABORT_MESSAGES = {
+        "document unloaded", "execution context was destroyed", "inspected target navigated",
+        "cannot find context with specified id"
+    };
+
+    /** How long the DOM and network must stay idle to count as settled */
+    public static final Duration DEFAULT_QUIET_PERIOD = Duration.ofMillis(500);
+
+    /**
+     * Must stay below the session script timeout that DriverManager sets (script.timeout)
+     */
+    private static long maxSliceMillis() {
+        return Math.max(1000, TimeUnit.SECONDS.toMillis(config.getScriptTimeout()) * 2 / 3);
+    }
+
+    private static final AtomicLong eventWaits = new AtomicLong();
+    private static final AtomicLong fallbackWaits = new AtomicLong();
+
+    private WaitEngine() {
+    }
+
+    /**
+     * Blocks until the condition holds or the timeout expires. The locator is ignored for PAGE_READY.
+     * Returns false on timeout.
+     */
+    public static boolean await(WebDriver driver, Condition condition, By locator, Duration timeout) {
+        Object[] locatorArguments = condition == Condition.PAGE_READY
+            ? new Object[] {"", ""}
+            : LocatorScript.arguments(locator);
+        if (locatorArguments == null || !(driver instanceof JavascriptExecutor)) {
+            return poll(driver, condition, locator, timeout);
+        }
+
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int aborts = 0;
+        eventWaits.incrementAndGet();
+
+        while (true) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            try {
+                Object result = executor.executeAsyncScript(WAIT_SCRIPT, locatorArguments[0], locatorArguments[1],
+                    condition.scriptName, Math.min(remainingMillis, maxSliceMillis()));
+                if (Boolean.TRUE.equals(result)) {
+                    return true;
+                }
+                if (!Boolean.FALSE.equals(result)) {
+                    // The in-page check itself failed, e.g. an XPath the browser cannot evaluate
+                    logger.debug("Event wait for {} {} returned {}", condition, locator, result);
+                    return fallback(driver, condition, locator, deadline);
+                }
+            } catch (ScriptTimeoutException e) {
+                // The slice outlived the session script timeout; the loop re-checks the deadline
+            } catch (JavascriptException e) {
+                if (++aborts > MAX_SCRIPT_ABORTS) {
+                    logger.debug("Event wait for {} {} kept aborting: {}", condition, locator, e.getMessage());
+                    return fallback(driver, condition, locator, deadline);
+                }
+            } catch (UnsupportedCommandException e) {
+                return fallback(driver, condition, locator, deadline);
+            }
+        }
+    }
+
+    /**
+     * Blocks until the page URL differs from the given one or the document is replaced by a navigation.
+     * Returns false on timeout.
+     */
+    public static boolean awaitUrlChange(WebDriver driver, String fromUrl, Duration timeout) {
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        eventWaits.incrementAndGet();
+
+        while (true) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            try {
+                Object result = executor.executeAsyncScript(URL_CHANGE_SCRIPT, fromUrl,
+                    Math.min(remainingMillis, maxSliceMillis()));
+                if (Boolean.TRUE.equals(result)) {
+                    return true;
+                }
+            } catch (ScriptTimeoutException e) {
+                // Slice expired; the loop re-checks the deadline
+            } catch (WebDriverException e) {
+                if (!isNavigationAbort(e)) {
+                    throw e;
+                }
+                // The document was unloaded while the script waited, i.e. a full navigation started
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Installs the fetch/XHR tracker used by awaitDomSettle. Call before the action being awaited,
+     * so requests it starts are counted.
+     */
+    public static void trackNetwork(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(NETWORK_TRACKER);
+        } catch (JavascriptException e) {
+            logger.debug("Could not install network tracker: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Starts counting structural DOM changes, for pageChangedSince. Call before the action being awaited.
+     */
+    public static void trackChanges(WebDriver driver) {
+        try {
+            ((JavascriptExecutor) driver).executeScript(CHANGE_TRACKER);
+        } catch (JavascriptException e) {
+            logger.debug("Could not install change tracker: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Whether the page navigated away from the given URL, or its DOM structure changed, since trackChanges
+     */
+    public static boolean pageChangedSince(WebDriver driver, String fromUrl) {
+        try {
+            return Boolean.TRUE.equals(((JavascriptExecutor) driver).executeScript(CHANGED_SCRIPT, fromUrl));
+        } catch (WebDriverException e) {
+            if (!isNavigationAbort(e)) {
+                throw e;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Blocks until the document has loaded and the DOM structure and fetch/XHR traffic have been idle for the
+     * quiet period.
+     * Returns false on timeout.
+     */
+    public static boolean awaitDomSettle(WebDriver driver, Duration quietPeriod, Duration timeout) {
+        JavascriptExecutor executor = (JavascriptExecutor) driver;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        int aborts = 0;
+        eventWaits.incrementAndGet();
+
+        while (true) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return false;
+            }
+            try {
+                Object result = executor.executeAsyncScript(DOM_SETTLE_SCRIPT, quietPeriod.toMillis(),
+                    Math.min(remainingMillis, maxSliceMillis()));
+                if (Boolean.TRUE.equals(result)) {
+                    return true;
+                }
+            } catch (ScriptTimeoutException e) {
+                // Slice expired; the loop re-checks the deadline
+            } catch (JavascriptException e) {
+                // A navigation replaced the document; settle on the new one
+                if (++aborts > MAX_SCRIPT_ABORTS) {
+                    return false;
+                }
+            }
+        }
+    }
+
+    private static boolean isNavigationAbort(WebDriverException e) {
+        String message = String.valueOf(e.getMessage()).toLowerCase();
+        for (String abort : NAVIGATION_ABORT_MESSAGES) {
+            if (message.contains(abort)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String getMetricsSummary() {
+        return String.format("Wait engine - event-driven waits: %d, polling fallbacks: %d",
+            eventWaits.get(), fallbackWaits.get());
+    }
+
+    private static boolean fallback(WebDriver driver, Condition condition, By locator, long deadline) {
+        long remainingNanos = deadline - System.nanoTime();
+        if (remainingNanos <= 0) {
+            return false;
+        }
+        return poll(driver, condition, locator, Duration.ofNanos(remainingNanos));
+    }
+
+    private static boolean poll(WebDriver driver, Condition condition, By locator, Duration timeout) {
+        fallbackWaits.incrementAndGet();
+        try {
+            new WebDriverWait(driver, timeout).until(toExpectedCondition(condition, locator));
+            return true;
+        } catch (TimeoutException e) {
+            return false;
+        }
+    }
+
+    private static ExpectedCondition<?> toExpectedCondition(Condition condition, By locator) {
+        switch (condition) {
+            case PRESENT:
+                return ExpectedConditions.presenceOfElementLocated(locator);
+            case VISIBLE:
+                return ExpectedConditions.visibilityOfElementLocated(locator);
+            case CLICKABLE:
+                return ExpectedConditions.elementToBeClickable(locator);
+            case PAGE_READY:
+                return webDriver -> "complete".equals(
+                    ((JavascriptExecutor) webDriver).executeScript("return document.readyState"));
+            default:
+                throw new IllegalArgumentException("Unsupported wait condition: " + condition);
+        }
+    }
+}
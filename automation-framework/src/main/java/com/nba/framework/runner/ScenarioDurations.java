@@ -0,0 +1,159 @@
+package com.nba.framework.runner;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-scenario durations from previous runs, persisted to a small properties file keyed by feature file
+ * and line. Each run is blended into an exponentially weighted average so one slow run does not
+ * dominate. Scenarios without history are estimated at the median of the known ones. Several JVMs may share
+ * the file, so saving locks it, re-reads it and blends only this run's durations into what is there.
+ */
+public class ScenarioDurations {
+
+    private static final Logger logger = LogManager.getLogger(ScenarioDurations.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    /** Weight of the latest run in the average */
+    private static final double SMOOTHING = 0.5;
+
+    private static final Map<String, Long> durations = new ConcurrentHashMap<>();
+    // Durations measured in this run, merged into the file as it is at save time
+    private static final Map<String, Long> measured = new ConcurrentHashMap<>();
+    private static boolean loaded;
+
+    private ScenarioDurations() {
+    }
+
+    /**
+     * Expected duration in milliseconds, or the default estimate when the scenario has no history
+     */
+    public static long estimate(String key) {
+        load();
+        Long known = durations.get(key);
+        return known != null ? known : defaultEstimate();
+    }
+
+    public static boolean isKnown(String key) {
+        load();
+        return durations.containsKey(key);
+    }
+
+    public static void record(String key, long millis) {
+        load();
+        durations.merge(key, millis, ScenarioDurations::blend);
+        measured.merge(key, millis, ScenarioDurations::blend);
+    }
+
+    private static long blend(long previous, long latest) {
+        return Math.round(previous * (1 - SMOOTHING) + latest * SMOOTHING);
+    }
+
+    /**
+     * The median of the known durations, or scenario.duration.default.seconds before any history exists
+     */
+    public static long defaultEstimate() {
+        load();
+        List<Long> known = new ArrayList<>(durations.values());
+        if (known.isEmpty()) {
+            return config.getScenarioDurationDefaultSeconds() * 1000L;
+        }
+        Collections.sort(known);
+        return known.get(known.size() / 2);
+    }
+
+    private static synchronized void load() {
+        if (loaded) {
+            return;
+        }
+        loaded = true;
+        Path file = Paths.get(config.getScenarioDurationFile());
+        try {
+            durations.putAll(read(file));
+        } catch (IOException e) {
+            logger.warn("Could not read scenario duration file {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static Map<String, Long> read(Path file) throws IOException {
+        Map<String, Long> records = new HashMap<>();
+        if (!Files.exists(file)) {
+            return records;
+        }
+        Properties properties = new Properties();
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            properties.load(inputStream);
+        }
+        for (String key : properties.stringPropertyNames()) {
+            try {
+                records.put(key, Long.parseLong(properties.getProperty(key)));
+            } catch (NumberFormatException e) {
+                logger.debug("Ignoring malformed scenario duration: {}", key);
+            }
+        }
+        return records;
+    }
+
+    /**
+     * Blends this run's durations into the file under an exclusive lock, so concurrent JVMs do not lose each
+     * other's updates
+     */
+    public static synchronized void save() {
+        if (measured.isEmpty()) {
+            return;
+        }
+        Path file = Paths.get(config.getScenarioDurationFile()).toAbsolutePath();
+        Path directory = file.getParent();
+        try {
+            Files.createDirectories(directory);
+            Path lockFile = directory.resolve(file.getFileName() + ".lock");
+            try (FileChannel channel = FileChannel.open(lockFile, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                 FileLock ignored = channel.lock()) {
+                Map<String, Long> records = read(file);
+                for (Map.Entry<String, Long> entry : measured.entrySet()) {
+                    records.merge(entry.getKey(), entry.getValue(), ScenarioDurations::blend);
+                }
+                Properties properties = new Properties();
+                for (Map.Entry<String, Long> entry : records.entrySet()) {
+                    properties.setProperty(entry.getKey(), Long.toString(entry.getValue()));
+                }
+                // Write-then-rename so readers outside the lock never see a half-written file
+                Path temp = Files.createTempFile(directory, "scenario-durations", ".tmp");
+                try {
+                    try (OutputStream outputStream = Files.newOutputStream(temp)) {
+                        properties.store(outputStream, "Average scenario duration in milliseconds per feature file and line");
+                    }
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+                // Keep anything recorded while saving for the next save
+                for (Map.Entry<String, Long> entry : new HashMap<>(measured).entrySet()) {
+                    measured.remove(entry.getKey(), entry.getValue());
+                }
+                durations.putAll(records);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not write scenario duration file {}: {}", file, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.nba.framework.runner;
+
+import com.nba.framework.config.ConfigManager;
+import com.nba.framework.driver.AdmissionController;
+import io.cucumber.java.Scenario;
+import io.cucumber.testng.Pickle;
+import io.cucumber.testng.PickleWrapper;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Longest-processing-time-first ordering for the runners' parallel scenario DataProvider: scenarios are
+ * handed out in descending order of their historical duration, so a long scrape no longer starts last
+ * while the other threads sit idle. Hooks report each scenario's duration, and the run logs the predicted
+ * makespan (for LPT and for feature order) next to the actual one.
+ */
+public final class ScenarioSchedule {
+
+    private static final Logger logger = LogManager.getLogger(ScenarioSchedule.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+    // TestNG's default data-provider-thread-count, until ScenarioScheduleListener reports the suite's
+    private static final int DEFAULT_THREADS = 10;
+
+    private static volatile int threads = DEFAULT_THREADS;
+    private static volatile long predictedMakespan;
+    private static volatile long featureOrderMakespan;
+    private static final AtomicInteger scheduled = new AtomicInteger();
+    private static final AtomicLong firstStart = new AtomicLong(Long.MAX_VALUE);
+    private static final AtomicLong lastEnd = new AtomicLong();
+    private static final ThreadLocal<Long> scenarioStart = new ThreadLocal<>();
+
+    private ScenarioSchedule() {
+    }
+
+    static void setThreadCount(int count) {
+        threads = Math.max(1, count);
+    }
+
+    /**
+     * Reorders the rows of AbstractTestNGCucumberTests.scenarios() longest-first; returns them unchanged when disabled
+     */
+    public static Object[][] longestFirst(Object[][] scenarios) {
+        if (!config.isScenarioOrderingEnabled() || scenarios.length < 2) {
+            return scenarios;
+        }
+        long[] featureOrder = new long[scenarios.length];
+        Map<Object[], Long> estimates = new IdentityHashMap<>();
+        int unknown = 0;
+        for (int i = 0; i < scenarios.length; i++) {
+            String key = key(scenarios[i]);
+            featureOrder[i] = ScenarioDurations.estimate(key);
+            estimates.put(scenarios[i], featureOrder[i]);
+            if (!ScenarioDurations.isKnown(key)) {
+                unknown++;
+            }
+        }
+        // Stable sort, so scenarios with equal estimates keep feature order
+        List<Object[]> rows = new ArrayList<>(Arrays.asList(scenarios));
+        rows.sort(Comparator.comparingLong((Object[] row) -> estimates.get(row)).reversed());
+        long[] lptOrder = new long[rows.size()];
+        for (int i = 0; i < lptOrder.length; i++) {
+            lptOrder[i] = estimates.get(rows.get(i));
+        }
+
+        int parallelism = getParallelism();
+        predictedMakespan = makespan(lptOrder, parallelism);
+        featureOrderMakespan = makespan(featureOrder, parallelism);
+        scheduled.addAndGet(scenarios.length);
+        logger.info("Scheduled {} scenarios longest-first on {} of {} threads ({} without history): predicted makespan {}, feature order {}",
+            scenarios.length, parallelism, threads, unknown, seconds(predictedMakespan), seconds(featureOrderMakespan));
+        return rows.toArray(new Object[0][]);
+    }
+
+    /**
+     * Scenarios that actually run at once: the data-provider threads, capped by the browser admission limit
+     */
+    private static int getParallelism() {
+        return Math.max(1, Math.min(threads, AdmissionController.getSessionCapacity()));
+    }
+
+    /**
+     * Simulates handing the durations, in order, to whichever of the threads frees up first
+     */
+    static long makespan(long[] durations, int threadCount) {
+        PriorityQueue<Long> finishTimes = new PriorityQueue<>();
+        for (int i = 0; i < threadCount; i++) {
+            finishTimes.add(0L);
+        }
+        long makespan = 0;
+        for (long duration : durations) {
+            long finish = finishTimes.poll() + duration;
+            makespan = Math.max(makespan, finish);
+            finishTimes.add(finish);
+        }
+        return makespan;
+    }
+
+    public static void scenarioStarted() {
+        long now = System.currentTimeMillis();
+        scenarioStart.set(now);
+        firstStart.accumulateAndGet(now, Math::min);
+    }
+
+    public static void scenarioFinished(Scenario scenario) {
+        Long start = scenarioStart.get();
+        scenarioStart.remove();
+        if (start == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        lastEnd.accumulateAndGet(now, Math::max);
+        switch (scenario.getStatus()) {
+            case PASSED:
+            case FAILED:
+                ScenarioDurations.record(key(scenario.getUri(), scenario.getLine()), now - start);
+                break;
+            default:
+                // Skipped, pending and undefined scenarios say nothing about the real duration
+                break;
+        }
+    }
+
+    /**
+     * Persists the durations and logs predicted against actual makespan
+     */
+    public static void finishRun() {
+        ScenarioDurations.save();
+        if (scheduled.get() > 0 && lastEnd.get() > 0) {
+            logger.info("Scenario schedule: predicted makespan {} (feature order {}), actual {}",
+                seconds(predictedMakespan), seconds(featureOrderMakespan), seconds(lastEnd.get() - firstStart.get()));
+        }
+    }
+
+    private static String seconds(long millis) {
+        return String.format("%.1fs", millis / 1000.0);
+    }
+
+    private static String key(Object[] row) {
+        Pickle pickle = ((PickleWrapper) row[0]).getPickle();
+        return key(pickle.getUri(), pickle.getLine());
+    }
+
+    /**
+     * Feature file name and line, stable across machines and checkouts
+     */
+    public static String key(URI uri, Integer line) {
+        String path = uri.toString();
+        return path.substring(path.lastIndexOf('/') + 1) + ":" + line;
+    }
+}
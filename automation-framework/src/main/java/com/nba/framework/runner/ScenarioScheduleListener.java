@@ -0,0 +1,20 @@
+package com.nba.framework.runner;
+
+import org.testng.ISuite;
+import org.testng.ISuiteListener;
+
+/**
+ * Tells ScenarioSchedule how many threads run the parallel scenario DataProvider, for its makespan
+ * prediction. Registered through META-INF/services.
+ */
+public class ScenarioScheduleListener implements ISuiteListener {
+
+    @Override
+    public void onStart(ISuite suite) {
+        ScenarioSchedule.setThreadCount(suite.getXmlSuite().getDataProviderThreadCount());
+    }
+
+    @Override
+    public void onFinish(ISuite suite) {
+    }
+}
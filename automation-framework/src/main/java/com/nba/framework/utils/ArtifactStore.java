@@ -0,0 +1,387 @@
+package com.nba.framework.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for test artifacts (screenshots, text reports, CSVs).
+ *
+ * Each blob is written once under blobs/&lt;2 hex&gt;/&lt;sha256&gt;.&lt;ext&gt;, however many runs produce it.
+ * Every run gets runs/&lt;runId&gt;/ holding hard links named after the logical artifact names and a
+ * manifest.json mapping names to blobs. Retention removes whole runs by age and then oldest-first
+ * until the store fits its size budget, followed by the blobs no remaining manifest references.
+ */
+public final class ArtifactStore {
+
+    private static final Logger logger = LogManager.getLogger(ArtifactStore.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+    private static final ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private static final String BLOBS = "blobs";
+    private static final String RUNS = "runs";
+    private static final String MANIFEST = "manifest.json";
+    /** Unreferenced blobs younger than this may belong to a run that has not written its manifest yet */
+    private static final long ORPHAN_GRACE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private static final String RUN_ID = FileUtils.getTimestamp() + "_" + ProcessHandle.current().pid();
+    private static final String STARTED_AT = Instant.now().toString();
+    private static final List<Map<String, Object>> entries = new ArrayList<>();
+    private static final Set<String> runNames = new HashSet<>();
+
+    private static final AtomicLong stored = new AtomicLong();
+    private static final AtomicLong deduplicated = new AtomicLong();
+    private static final AtomicLong bytesWritten = new AtomicLong();
+    private static final AtomicLong bytesSaved = new AtomicLong();
+
+    private static boolean shutdownHookRegistered;
+    private static boolean finished;
+
+    private ArtifactStore() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isArtifactStoreEnabled();
+    }
+
+    public static String getRunId() {
+        return RUN_ID;
+    }
+
+    /**
+     * Stores the content under the given artifact name (e.g. "jacket_details.txt") and returns the path
+     * it can be opened from in this run's directory. With the store disabled, writes a plain timestamped
+     * file to report.path instead.
+     */
+    public static String store(String name, byte[] content) {
+        String safeName = FileUtils.toSafeFileName(name);
+        String extension = FileUtils.getFileExtension(safeName);
+        if (!isEnabled()) {
+            return writeUnmanaged(safeName, extension, content);
+        }
+        String hash = sha256(content);
+        Path root = Paths.get(config.getArtifactStorePath());
+        Path blob = root.resolve(BLOBS).resolve(hash.substring(0, 2))
+            .resolve(extension.isEmpty() ? hash : hash + "." + extension);
+
+        try {
+            boolean created = writeBlob(blob, content);
+            if (created) {
+                stored.incrementAndGet();
+                bytesWritten.addAndGet(content.length);
+            } else {
+                deduplicated.incrementAndGet();
+                bytesSaved.addAndGet(content.length);
+                // Keeps the blob clear of the orphan sweep of a concurrent run until our manifest lists it
+                Files.setLastModifiedTime(blob, FileTime.fromMillis(System.currentTimeMillis()));
+            }
+
+            Path link = linkIntoRun(root, safeName, blob);
+            Map<String, Object> entry = new LinkedHashMap<>();
+            entry.put("name", link.getFileName().toString());
+            entry.put("blob", root.relativize(blob).toString().replace('\\', '/'));
+            entry.put("sha256", hash);
+            entry.put("size", content.length);
+            entry.put("contentType", contentType(extension));
+            entry.put("storedAt", Instant.now().toString());
+            entry.put("deduplicated", !created);
+            synchronized (ArtifactStore.class) {
+                entries.add(entry);
+                registerShutdownHook();
+            }
+
+            logger.info("Artifact stored: {} -> {}{}", link, blob.getFileName(), created ? "" : " (deduplicated)");
+            return link.toString();
+        } catch (IOException e) {
+            logger.error("Failed to store artifact: {}", name, e);
+            throw new RuntimeException("Artifact store failed", e);
+        }
+    }
+
+    public static String storeText(String name, String content) {
+        return store(name, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String storeCsv(String name, List<String[]> rows) {
+        return storeText(name, FileUtils.toCSV(rows));
+    }
+
+    /**
+     * Writes this run's manifest and applies retention. Safe to call more than once; later artifacts are
+     * added to the manifest on the next call.
+     */
+    public static synchronized void finishRun() {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Path root = Paths.get(config.getArtifactStorePath());
+        try {
+            writeManifest(root);
+        } catch (IOException e) {
+            logger.error("Failed to write artifact manifest for run {}", RUN_ID, e);
+            return;
+        }
+        if (!finished) {
+            finished = true;
+            enforceRetention(root);
+        }
+    }
+
+    public static String getMetricsSummary() {
+        return String.format("Artifact store - run: %s, new blobs: %d (%d KB), deduplicated: %d (%d KB saved)",
+            RUN_ID, stored.get(), bytesWritten.get() / 1024, deduplicated.get(), bytesSaved.get() / 1024);
+    }
+
+    /**
+     * Removes runs older than artifact.retention.max.age.days, then the oldest runs until the blobs fit in
+     * artifact.retention.max.size.mb, then every blob no remaining manifest refers to. The current run is kept.
+     */
+    static void enforceRetention(Path root) {
+        Path runsDir = root.resolve(RUNS);
+        Path blobsDir = root.resolve(BLOBS);
+        if (!Files.isDirectory(runsDir) || !Files.isDirectory(blobsDir)) {
+            return;
+        }
+        try {
+            long maxAgeMillis = TimeUnit.DAYS.toMillis(config.getArtifactRetentionMaxAgeDays());
+            long maxBytes = config.getArtifactRetentionMaxSizeMb() * 1024L * 1024L;
+            long now = System.currentTimeMillis();
+
+            List<Path> runs = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(runsDir, Files::isDirectory)) {
+                for (Path run : stream) {
+                    if (!run.getFileName().toString().equals(RUN_ID)) {
+                        runs.add(run);
+                    }
+                }
+            }
+            runs.sort(Comparator.comparingLong(ArtifactStore::lastModified));
+
+            int removedRuns = 0;
+            while (!runs.isEmpty() && maxAgeMillis > 0 && now - lastModified(runs.get(0)) > maxAgeMillis) {
+                deleteRecursively(runs.remove(0));
+                removedRuns++;
+            }
+
+            Map<Path, Long> blobs = listBlobs(blobsDir);
+            long totalBytes = blobs.values().stream().mapToLong(Long::longValue).sum();
+            Set<Path> referenced = referencedBlobs(root, runsDir);
+            while (!runs.isEmpty() && maxBytes > 0 && referencedBytes(blobs, referenced) > maxBytes) {
+                deleteRecursively(runs.remove(0));
+                removedRuns++;
+                referenced = referencedBlobs(root, runsDir);
+            }
+
+            int removedBlobs = 0;
+            long freedBytes = 0;
+            for (Map.Entry<Path, Long> blob : blobs.entrySet()) {
+                if (!referenced.contains(blob.getKey()) && now - lastModified(blob.getKey()) > ORPHAN_GRACE_MILLIS) {
+                    Files.deleteIfExists(blob.getKey());
+                    removedBlobs++;
+                    freedBytes += blob.getValue();
+                }
+            }
+            if (removedRuns > 0 || removedBlobs > 0) {
+                logger.info("Artifact retention removed {} runs and {} blobs ({} KB); store now {} KB",
+                    removedRuns, removedBlobs, freedBytes / 1024, (totalBytes - freedBytes) / 1024);
+            }
+        } catch (IOException e) {
+            logger.warn("Artifact retention failed: {}", e.toString());
+        }
+    }
+
+    private static String writeUnmanaged(String name, String extension, byte[] content) {
+        String stem = extension.isEmpty() ? name : name.substring(0, name.length() - extension.length() - 1);
+        Path file = Paths.get(config.getReportPath(),
+            stem + "_" + FileUtils.getTimestamp() + (extension.isEmpty() ? "" : "." + extension));
+        try {
+            Files.createDirectories(file.getParent());
+            Files.write(file, content);
+            logger.info("Artifact written: {}", file);
+            return file.toString();
+        } catch (IOException e) {
+            logger.error("Failed to write artifact: {}", file, e);
+            throw new RuntimeException("Artifact write failed", e);
+        }
+    }
+
+    /**
+     * Writes the blob atomically; returns false when identical content is already stored
+     */
+    private static boolean writeBlob(Path blob, byte[] content) throws IOException {
+        if (Files.exists(blob)) {
+            return false;
+        }
+        Files.createDirectories(blob.getParent());
+        Path temp = Files.createTempFile(blob.getParent(), ".incoming-", ".tmp");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, blob, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return false;
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Hard-links the blob into the run directory under a name unique within the run; falls back to the
+     * blob path itself on file systems without hard links
+     */
+    private static Path linkIntoRun(Path root, String name, Path blob) throws IOException {
+        Path runDir = root.resolve(RUNS).resolve(RUN_ID);
+        Files.createDirectories(runDir);
+        String uniqueName;
+        synchronized (ArtifactStore.class) {
+            uniqueName = name;
+            String extension = FileUtils.getFileExtension(name);
+            String stem = extension.isEmpty() ? name : name.substring(0, name.length() - extension.length() - 1);
+            for (int i = 2; !runNames.add(uniqueName); i++) {
+                uniqueName = stem + "-" + i + (extension.isEmpty() ? "" : "." + extension);
+            }
+        }
+        Path link = runDir.resolve(uniqueName);
+        try {
+            Files.createLink(link, blob);
+            return link;
+        } catch (UnsupportedOperationException | IOException e) {
+            logger.debug("Hard link not created for {}: {}", link, e.toString());
+            return blob;
+        }
+    }
+
+    private static void writeManifest(Path root) throws IOException {
+        Path runDir = root.resolve(RUNS).resolve(RUN_ID);
+        Files.createDirectories(runDir);
+        Map<String, Object> manifest = new LinkedHashMap<>();
+        manifest.put("runId", RUN_ID);
+        manifest.put("startedAt", STARTED_AT);
+        manifest.put("finishedAt", Instant.now().toString());
+        manifest.put("host", ManagementFactory.getRuntimeMXBean().getName());
+        manifest.put("artifacts", new ArrayList<>(entries));
+
+        Path temp = Files.createTempFile(runDir, ".manifest-", ".tmp");
+        mapper.writeValue(temp.toFile(), manifest);
+        Files.move(temp, runDir.resolve(MANIFEST), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        logger.info("Artifact manifest written: {} ({} artifacts)", runDir.resolve(MANIFEST), entries.size());
+    }
+
+    private static Set<Path> referencedBlobs(Path root, Path runsDir) throws IOException {
+        Set<Path> referenced = new HashSet<>();
+        try (DirectoryStream<Path> manifests = Files.newDirectoryStream(runsDir, Files::isDirectory)) {
+            for (Path run : manifests) {
+                Path manifest = run.resolve(MANIFEST);
+                if (!Files.isRegularFile(manifest)) {
+                    continue;
+                }
+                try {
+                    for (JsonNode artifact : mapper.readTree(manifest.toFile()).path("artifacts")) {
+                        referenced.add(root.resolve(artifact.path("blob").asText()).normalize());
+                    }
+                } catch (IOException e) {
+                    logger.warn("Unreadable artifact manifest {}: {}", manifest, e.toString());
+                }
+            }
+        }
+        return referenced;
+    }
+
+    private static Map<Path, Long> listBlobs(Path blobsDir) throws IOException {
+        Map<Path, Long> blobs = new LinkedHashMap<>();
+        try (Stream<Path> files = Files.walk(blobsDir)) {
+            files.filter(Files::isRegularFile)
+                .filter(file -> !file.getFileName().toString().startsWith(".incoming-"))
+                .forEach(file -> blobs.put(file.normalize(), file.toFile().length()));
+        }
+        return blobs;
+    }
+
+    private static long referencedBytes(Map<Path, Long> blobs, Set<Path> referenced) {
+        long total = 0;
+        for (Map.Entry<Path, Long> blob : blobs.entrySet()) {
+            if (referenced.contains(blob.getKey())) {
+                total += blob.getValue();
+            }
+        }
+        return total;
+    }
+
+    private static long lastModified(Path path) {
+        return path.toFile().lastModified();
+    }
+
+    private static void deleteRecursively(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(file -> file.toFile().delete());
+        }
+    }
+
+    private static void registerShutdownHook() {
+        if (!shutdownHookRegistered) {
+            shutdownHookRegistered = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(ArtifactStore::finishRun, "artifact-store-shutdown"));
+        }
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static String contentType(String extension) {
+        switch (extension.toLowerCase()) {
+            case "png":
+                return "image/png";
+            case "jpg":
+            case "jpeg":
+                return "image/jpeg";
+            case "gif":
+                return "image/gif";
+            case "txt":
+            case "log":
+                return "text/plain";
+            case "csv":
+                return "text/csv";
+            case "json":
+                return "application/json";
+            default:
+                return "application/octet-stream";
+        }
+    }
+}
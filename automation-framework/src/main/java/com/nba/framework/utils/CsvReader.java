@@ -0,0 +1,192 @@
+package com.nba.framework.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+
+/**
+ * Streaming RFC 4180 CSV parser. Reads through one reused char buffer with a small state machine,
+ * so quoted fields may contain commas, doubled quotes and line breaks, and files of any size are
+ * processed one row at a time. Accepts CRLF, LF or CR record endings and skips a leading BOM.
+ */
+public final class CsvReader implements Closeable, Iterable<String[]> {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Reader in;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean endOfInput;
+    private boolean started;
+
+    private final StringBuilder field = new StringBuilder(64);
+    private final List<String> fields = new ArrayList<>();
+    private long rows;
+
+    public CsvReader(Reader in) {
+        this.in = in;
+    }
+
+    /**
+     * Opens a UTF-8 CSV file
+     */
+    public static CsvReader open(Path file) throws IOException {
+        return new CsvReader(Files.newBufferedReader(file, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The next record, or null at end of input. A blank line is a record with one empty field.
+     */
+    public String[] readRow() throws IOException {
+        if (!started) {
+            started = true;
+            if (fill() && buffer[position] == '\uFEFF') {
+                position++;
+            }
+        }
+        if (!fill()) {
+            return null;
+        }
+
+        fields.clear();
+        field.setLength(0);
+        boolean quoted = false;
+        boolean afterQuote = false;
+        while (fill()) {
+            char c = buffer[position++];
+            if (quoted) {
+                if (c == '"') {
+                    if (fill() && buffer[position] == '"') {
+                        field.append('"');
+                        position++;
+                    } else {
+                        quoted = false;
+                        afterQuote = true;
+                    }
+                } else {
+                    field.append(c);
+                }
+                continue;
+            }
+            if (c == ',') {
+                endField();
+                afterQuote = false;
+            } else if (c == '\n') {
+                return endRow();
+            } else if (c == '\r') {
+                if (fill() && buffer[position] == '\n') {
+                    position++;
+                }
+                return endRow();
+            } else if (c == '"' && field.length() == 0 && !afterQuote) {
+                quoted = true;
+            } else {
+                // Lenient: characters after a closing quote or a stray quote mid-field are kept as text
+                field.append(c);
+            }
+        }
+        return endRow();
+    }
+
+    /**
+     * Calls the consumer for every remaining record; the arrays are not reused and may be kept
+     */
+    public long forEach(Consumer<String[]> consumer, boolean skipHeader) throws IOException {
+        long count = 0;
+        if (skipHeader && readRow() == null) {
+            return 0;
+        }
+        String[] row;
+        while ((row = readRow()) != null) {
+            consumer.accept(row);
+            count++;
+        }
+        return count;
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Iterates the remaining records; read errors surface as UncheckedIOException
+     */
+    @Override
+    public Iterator<String[]> iterator() {
+        return new Iterator<String[]>() {
+            private String[] next;
+            private boolean fetched;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched) {
+                    try {
+                        next = readRow();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    fetched = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public String[] next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fetched = false;
+                return next;
+            }
+        };
+    }
+
+    private void endField() {
+        fields.add(field.toString());
+        field.setLength(0);
+    }
+
+    private String[] endRow() {
+        endField();
+        rows++;
+        return fields.toArray(new String[0]);
+    }
+
+    /**
+     * Makes sure at least one char is buffered; false at end of input
+     */
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        if (endOfInput) {
+            return false;
+        }
+        int read;
+        do {
+            read = in.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            endOfInput = true;
+            return false;
+        }
+        position = 0;
+        limit = read;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
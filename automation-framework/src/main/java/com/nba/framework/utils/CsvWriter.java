@@ -0,0 +1,117 @@
+package com.nba.framework.utils;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Streams rows as RFC 4180 CSV: fields containing a comma, quote, CR or LF are quoted, quotes are
+ * doubled and records end with CRLF. Rows go straight to the underlying writer, so exports of any
+ * size are written in constant memory.
+ */
+public final class CsvWriter implements Closeable, Flushable {
+
+    private static final String RECORD_SEPARATOR = "\r\n";
+
+    private final Writer out;
+    private long rows;
+
+    public CsvWriter(Writer out) {
+        this.out = out;
+    }
+
+    /**
+     * Opens (creating or truncating) a UTF-8 CSV file
+     */
+    public static CsvWriter open(Path file) throws IOException {
+        return new CsvWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8));
+    }
+
+    public CsvWriter writeRow(String... fields) throws IOException {
+        for (int i = 0; i < fields.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeField(fields[i]);
+        }
+        out.write(RECORD_SEPARATOR);
+        rows++;
+        return this;
+    }
+
+    public CsvWriter writeRow(List<String> fields) throws IOException {
+        return writeRow(fields.toArray(new String[0]));
+    }
+
+    public CsvWriter writeRows(Iterable<String[]> rowsToWrite) throws IOException {
+        for (String[] row : rowsToWrite) {
+            writeRow(row);
+        }
+        return this;
+    }
+
+    public long getRowCount() {
+        return rows;
+    }
+
+    /**
+     * Formats rows in memory, for callers that need the CSV as a string
+     */
+    public static String toString(Iterable<String[]> rows) {
+        StringWriter buffer = new StringWriter();
+        try (CsvWriter writer = new CsvWriter(buffer)) {
+            writer.writeRows(rows);
+        } catch (IOException e) {
+            throw new IllegalStateException("StringWriter failed", e);
+        }
+        return buffer.toString();
+    }
+
+    private void writeField(String field) throws IOException {
+        if (field == null || field.isEmpty()) {
+            return;
+        }
+        if (!needsQuotes(field)) {
+            out.write(field);
+            return;
+        }
+        out.write('"');
+        int start = 0;
+        for (int i = 0; i < field.length(); i++) {
+            if (field.charAt(i) == '"') {
+                // Write up to and including the quote, then the escaping second quote
+                out.write(field, start, i + 1 - start);
+                out.write('"');
+                start = i + 1;
+            }
+        }
+        out.write(field, start, field.length() - start);
+        out.write('"');
+    }
+
+    private static boolean needsQuotes(String field) {
+        for (int i = 0; i < field.length(); i++) {
+            char c = field.charAt(i);
+            if (c == ',' || c == '"' || c == '\r' || c == '\n') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
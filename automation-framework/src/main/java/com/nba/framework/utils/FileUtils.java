@@ -4,13 +4,17 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class FileUtils {
     
@@ -18,53 +22,57 @@ public class FileUtils {
     
     public static void createDirectory(String directoryPath) {
         try {
-            Path path = Paths.get(directoryPath);
-            if (!Files.exists(path)) {
-                Files.createDirectories(path);
-                logger.info("Created directory: " + directoryPath);
-            }
+            FileWriterRegistry.ensureDirectory(Paths.get(directoryPath));
         } catch (IOException e) {
-            logger.error("Failed to create directory: " + directoryPath, e);
+            logger.error("Failed to create directory: {}", directoryPath, e);
             throw new RuntimeException("Directory creation failed", e);
         }
     }
     
     public static void writeToFile(String filePath, String content) {
         try {
-            createDirectory(getDirectoryPath(filePath));
-            try (FileWriter writer = new FileWriter(filePath)) {
-                writer.write(content);
-                logger.info("Content written to file: " + filePath);
+            Path path = Paths.get(filePath);
+            FileWriterRegistry.close(path);
+            FileWriterRegistry.ensureDirectory(path.getParent());
+            try {
+                Files.write(path, content.getBytes(StandardCharsets.UTF_8));
+            } catch (NoSuchFileException e) {
+                // The directory was removed since it was cached
+                FileWriterRegistry.forgetDirectory(path.getParent());
+                FileWriterRegistry.ensureDirectory(path.getParent());
+                Files.write(path, content.getBytes(StandardCharsets.UTF_8));
             }
+            logger.info("Content written to file: {}", filePath);
         } catch (IOException e) {
-            logger.error("Failed to write to file: " + filePath, e);
+            logger.error("Failed to write to file: {}", filePath, e);
             throw new RuntimeException("File write failed", e);
         }
     }
     
+    /**
+     * Buffers the line in the file's open writer; it reaches disk when the buffer fills, the file is read
+     * through FileUtils, or FileWriterRegistry flushes after the scenario
+     */
     public static void appendToFile(String filePath, String content) {
         try {
-            createDirectory(getDirectoryPath(filePath));
-            try (FileWriter writer = new FileWriter(filePath, true)) {
-                writer.write(content + System.lineSeparator());
-                logger.info("Content appended to file: " + filePath);
-            }
+            FileWriterRegistry.append(Paths.get(filePath), content + System.lineSeparator());
         } catch (IOException e) {
-            logger.error("Failed to append to file: " + filePath, e);
+            logger.error("Failed to append to file: {}", filePath, e);
             throw new RuntimeException("File append failed", e);
         }
     }
     
     public static List<String> readFileLines(String filePath) {
         List<String> lines = new ArrayList<>();
+        FileWriterRegistry.flush(Paths.get(filePath));
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 lines.add(line);
             }
-            logger.info("Read " + lines.size() + " lines from file: " + filePath);
+            logger.info("Read {} lines from file: {}", lines.size(), filePath);
         } catch (IOException e) {
-            logger.error("Failed to read file: " + filePath, e);
+            logger.error("Failed to read file: {}", filePath, e);
             throw new RuntimeException("File read failed", e);
         }
         return lines;
@@ -72,29 +80,68 @@ public class FileUtils {
     
     public static String readFileContent(String filePath) {
         StringBuilder content = new StringBuilder();
+        FileWriterRegistry.flush(Paths.get(filePath));
         try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
             String line;
             while ((line = reader.readLine()) != null) {
                 content.append(line).append(System.lineSeparator());
             }
-            logger.info("Read content from file: " + filePath);
+            logger.info("Read content from file: {}", filePath);
         } catch (IOException e) {
-            logger.error("Failed to read file: " + filePath, e);
+            logger.error("Failed to read file: {}", filePath, e);
             throw new RuntimeException("File read failed", e);
         }
         return content.toString();
     }
     
+    /**
+     * Opens a memory-mapped line reader for large files; lines are decoded lazily and the reader can seek by byte offset
+     */
+    public static MappedLineReader openLineReader(String filePath) {
+        FileWriterRegistry.flush(Paths.get(filePath));
+        try {
+            return MappedLineReader.open(Paths.get(filePath));
+        } catch (IOException e) {
+            logger.error("Failed to open file: {}", filePath, e);
+            throw new RuntimeException("File read failed", e);
+        }
+    }
+    
+    /**
+     * Streams the lines of a file of any size without loading it; close the stream to release the file
+     */
+    public static Stream<CharSequence> streamLines(String filePath) {
+        return openLineReader(filePath).lines();
+    }
+    
+    /**
+     * Whether any line contains the text, scanning the mapped file without decoding lines for ASCII text
+     */
+    public static boolean containsLine(String filePath, String text) {
+        try (MappedLineReader reader = openLineReader(filePath)) {
+            for (MappedLineReader.Line line : reader) {
+                if (line.contains(text)) {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException | UncheckedIOException e) {
+            logger.error("Failed to read file: {}", filePath, e);
+            throw new RuntimeException("File read failed", e);
+        }
+    }
+    
     public static boolean fileExists(String filePath) {
         return Files.exists(Paths.get(filePath));
     }
     
     public static void deleteFile(String filePath) {
         try {
+            FileWriterRegistry.close(Paths.get(filePath));
             Files.deleteIfExists(Paths.get(filePath));
-            logger.info("File deleted: " + filePath);
+            logger.info("File deleted: {}", filePath);
         } catch (IOException e) {
-            logger.error("Failed to delete file: " + filePath, e);
+            logger.error("Failed to delete file: {}", filePath, e);
             throw new RuntimeException("File deletion failed", e);
         }
     }
@@ -103,6 +150,14 @@ public class FileUtils {
         return LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd_HH-mm-ss"));
     }
     
+    /**
+     * Replaces characters that are unsafe in file names (scenario names contain spaces, colons, quotes)
+     */
+    public static String toSafeFileName(String name) {
+        String safe = name == null ? "unnamed" : name.replaceAll("[^A-Za-z0-9._-]+", "_");
+        return safe.length() > 80 ? safe.substring(0, 80) : safe;
+    }
+    
     public static String getDirectoryPath(String filePath) {
         return Paths.get(filePath).getParent().toString();
     }
@@ -117,33 +172,49 @@ public class FileUtils {
         return lastDotIndex > 0 ? fileName.substring(lastDotIndex + 1) : "";
     }
     
-    public static void writeCSVFile(String filePath, List<String[]> data) {
+    /**
+     * Writes the rows as RFC 4180 CSV, streaming them to the file; any Iterable works, not just lists
+     */
+    public static void writeCSVFile(String filePath, Iterable<String[]> data) {
         try {
-            createDirectory(getDirectoryPath(filePath));
-            try (FileWriter writer = new FileWriter(filePath)) {
-                for (String[] row : data) {
-                    writer.write(String.join(",", row) + System.lineSeparator());
-                }
-                logger.info("CSV file written: " + filePath);
+            Path path = Paths.get(filePath);
+            FileWriterRegistry.close(path);
+            FileWriterRegistry.ensureDirectory(path.getParent());
+            try (CsvWriter writer = CsvWriter.open(path)) {
+                writer.writeRows(data);
+                logger.info("CSV file written: {} ({} rows)", filePath, writer.getRowCount());
             }
         } catch (IOException e) {
-            logger.error("Failed to write CSV file: " + filePath, e);
+            logger.error("Failed to write CSV file: {}", filePath, e);
             throw new RuntimeException("CSV file write failed", e);
         }
     }
     
+    /**
+     * Formats rows the way writeCSVFile writes them
+     */
+    public static String toCSV(Iterable<String[]> data) {
+        return CsvWriter.toString(data);
+    }
+    
     public static List<String[]> readCSVFile(String filePath) {
         List<String[]> data = new ArrayList<>();
-        try (BufferedReader reader = new BufferedReader(new FileReader(filePath))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                data.add(line.split(","));
-            }
-            logger.info("CSV file read: " + filePath);
+        forEachCSVRow(filePath, data::add);
+        return data;
+    }
+    
+    /**
+     * Streams the file's rows to the consumer one at a time, so large exports are read in constant memory
+     */
+    public static long forEachCSVRow(String filePath, Consumer<String[]> consumer) {
+        FileWriterRegistry.flush(Paths.get(filePath));
+        try (CsvReader reader = CsvReader.open(Paths.get(filePath))) {
+            long rows = reader.forEach(consumer, false);
+            logger.info("CSV file read: {} ({} rows)", filePath, rows);
+            return rows;
         } catch (IOException e) {
-            logger.error("Failed to read CSV file: " + filePath, e);
+            logger.error("Failed to read CSV file: {}", filePath, e);
             throw new RuntimeException("CSV file read failed", e);
         }
-        return data;
     }
 }
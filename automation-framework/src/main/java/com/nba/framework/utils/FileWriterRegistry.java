@@ -0,0 +1,244 @@
+package com.nba.framework.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps one buffered append channel open per target file so repeated appends cost a memory copy
+ * instead of an open/write/close, and remembers which directories already exist.
+ * Buffers are flushed after each scenario and every channel is closed after the run or at JVM shutdown.
+ */
+public final class FileWriterRegistry {
+
+    private static final Logger logger = LogManager.getLogger(FileWriterRegistry.class);
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    /** Least recently used channels beyond this are closed */
+    private static final int MAX_OPEN_FILES = 64;
+
+    private static final Map<Path, BufferedAppender> appenders = new LinkedHashMap<Path, BufferedAppender>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Path, BufferedAppender> eldest) {
+            if (size() > MAX_OPEN_FILES) {
+                eldest.getValue().closeQuietly();
+                return true;
+            }
+            return false;
+        }
+    };
+    private static final Set<Path> knownDirectories = ConcurrentHashMap.newKeySet();
+
+    private static final AtomicLong appends = new AtomicLong();
+    private static final AtomicLong channelWrites = new AtomicLong();
+    private static final AtomicLong opened = new AtomicLong();
+    private static final AtomicLong directoriesCreated = new AtomicLong();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(FileWriterRegistry::closeAll, "file-writer-registry-shutdown"));
+    }
+
+    private FileWriterRegistry() {
+    }
+
+    /**
+     * Appends the text to the file's buffer, opening (and creating) the file on first use
+     */
+    public static void append(Path file, String text) throws IOException {
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Path key = file.toAbsolutePath().normalize();
+        // An appender can be evicted and closed between lookup and append; take a fresh one then
+        BufferedAppender appender = appender(key);
+        while (!appender.append(bytes)) {
+            synchronized (appenders) {
+                appenders.remove(key, appender);
+            }
+            appender = appender(key);
+        }
+        appends.incrementAndGet();
+    }
+
+    private static BufferedAppender appender(Path key) throws IOException {
+        synchronized (appenders) {
+            BufferedAppender appender = appenders.get(key);
+            if (appender == null) {
+                ensureDirectory(key.getParent());
+                appender = new BufferedAppender(key);
+                appenders.put(key, appender);
+                opened.incrementAndGet();
+            }
+            return appender;
+        }
+    }
+
+    /**
+     * Creates the directory unless this run already created or saw it
+     */
+    public static void ensureDirectory(Path directory) throws IOException {
+        if (directory == null) {
+            return;
+        }
+        Path key = directory.toAbsolutePath().normalize();
+        if (knownDirectories.contains(key)) {
+            return;
+        }
+        if (!Files.isDirectory(key)) {
+            Files.createDirectories(key);
+            directoriesCreated.incrementAndGet();
+            logger.debug("Created directory: {}", key);
+        }
+        knownDirectories.add(key);
+    }
+
+    /**
+     * Drops a cached directory, e.g. after a write found it missing
+     */
+    public static void forgetDirectory(Path directory) {
+        if (directory != null) {
+            knownDirectories.remove(directory.toAbsolutePath().normalize());
+        }
+    }
+
+    /**
+     * Writes out pending appends for the file, so readers see everything appended so far
+     */
+    public static void flush(Path file) {
+        BufferedAppender appender;
+        synchronized (appenders) {
+            appender = appenders.get(file.toAbsolutePath().normalize());
+        }
+        if (appender != null) {
+            appender.flushQuietly();
+        }
+    }
+
+    /**
+     * Flushes and closes the file's channel before it is overwritten or deleted
+     */
+    public static void close(Path file) {
+        BufferedAppender appender;
+        synchronized (appenders) {
+            appender = appenders.remove(file.toAbsolutePath().normalize());
+        }
+        if (appender != null) {
+            appender.closeQuietly();
+        }
+    }
+
+    public static void flushAll() {
+        for (BufferedAppender appender : snapshot()) {
+            appender.flushQuietly();
+        }
+    }
+
+    public static void closeAll() {
+        List<BufferedAppender> open;
+        synchronized (appenders) {
+            open = new ArrayList<>(appenders.values());
+            appenders.clear();
+        }
+        for (BufferedAppender appender : open) {
+            appender.closeQuietly();
+        }
+    }
+
+    public static String getMetricsSummary() {
+        return String.format("File writers - appends: %d, channel writes: %d, files opened: %d, directories created: %d",
+            appends.get(), channelWrites.get(), opened.get(), directoriesCreated.get());
+    }
+
+    private static List<BufferedAppender> snapshot() {
+        synchronized (appenders) {
+            return new ArrayList<>(appenders.values());
+        }
+    }
+
+    private static final class BufferedAppender {
+
+        private final Path file;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+        private boolean closed;
+
+        BufferedAppender(Path file) throws IOException {
+            this.file = file;
+            this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        }
+
+        /**
+         * Returns false without writing when the appender has been closed
+         */
+        synchronized boolean append(byte[] bytes) throws IOException {
+            if (closed) {
+                return false;
+            }
+            if (bytes.length > buffer.remaining()) {
+                drain();
+            }
+            if (bytes.length > buffer.capacity()) {
+                write(ByteBuffer.wrap(bytes));
+            } else {
+                buffer.put(bytes);
+            }
+            return true;
+        }
+
+        synchronized void flushQuietly() {
+            try {
+                if (!closed) {
+                    drain();
+                }
+            } catch (IOException e) {
+                logger.error("Failed to flush file: {}", file, e);
+            }
+        }
+
+        synchronized void closeQuietly() {
+            if (closed) {
+                return;
+            }
+            try {
+                drain();
+            } catch (IOException e) {
+                logger.error("Failed to flush file: {}", file, e);
+            } finally {
+                closed = true;
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    logger.warn("Failed to close file: {}", file, e);
+                }
+            }
+        }
+
+        private void drain() throws IOException {
+            if (buffer.position() == 0) {
+                return;
+            }
+            buffer.flip();
+            write(buffer);
+            buffer.clear();
+        }
+
+        private void write(ByteBuffer bytes) throws IOException {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channelWrites.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.nba.framework.utils;
+
+import org.apache.logging.log4j.Level;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.logging.log4j.core.config.Configurator;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Applies the log.profile setting on top of log4j2.xml.
+ * "verbose" logs every framework and page-object action at DEBUG; "production" keeps INFO and above
+ * for the framework and tests and WARN for everything else.
+ */
+public class LoggingProfile {
+
+    private static final Logger logger = LogManager.getLogger(LoggingProfile.class);
+
+    public static final String VERBOSE = "verbose";
+    public static final String PRODUCTION = "production";
+
+    private static final String FRAMEWORK_LOGGER = "com.nba.framework";
+    private static final String TESTS_LOGGER = "com.nba.tests";
+    private static final String SELENIUM_LOGGER = "org.openqa.selenium";
+    private static final String WEBDRIVERMANAGER_LOGGER = "io.github.bonigarcia.wdm";
+
+    private LoggingProfile() {
+    }
+
+    public static void apply(String profile) {
+        Map<String, Level> levels = new LinkedHashMap<>();
+        if (PRODUCTION.equalsIgnoreCase(profile)) {
+            levels.put(FRAMEWORK_LOGGER, Level.INFO);
+            levels.put(TESTS_LOGGER, Level.INFO);
+            levels.put(SELENIUM_LOGGER, Level.WARN);
+            levels.put(WEBDRIVERMANAGER_LOGGER, Level.WARN);
+            levels.put(LogManager.ROOT_LOGGER_NAME, Level.WARN);
+        } else {
+            if (!VERBOSE.equalsIgnoreCase(profile)) {
+                logger.warn("Unknown log.profile '{}', using {}", profile, VERBOSE);
+            }
+            levels.put(FRAMEWORK_LOGGER, Level.DEBUG);
+            levels.put(TESTS_LOGGER, Level.DEBUG);
+            levels.put(SELENIUM_LOGGER, Level.WARN);
+            levels.put(WEBDRIVERMANAGER_LOGGER, Level.WARN);
+            levels.put(LogManager.ROOT_LOGGER_NAME, Level.INFO);
+        }
+        Configurator.setLevel(levels);
+        logger.info("Logging profile: {}", profile);
+    }
+}
@@ -0,0 +1,286 @@
+package com.nba.framework.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Reads UTF-8 lines from a memory-mapped file through a sliding window, so multi-hundred-MB logs and
+ * CSV histories are scanned without copying them onto the heap. Lines are decoded only when their text
+ * is used, ASCII searches run on the mapped bytes, and every line knows its byte offset for seek().
+ * Not thread-safe; the mapping is released by the garbage collector once the reader and its lines are gone.
+ */
+public final class MappedLineReader implements Closeable, Iterable<MappedLineReader.Line> {
+
+    private static final long DEFAULT_WINDOW_SIZE = 64L * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final long windowSize;
+    private MappedByteBuffer window;
+    private long windowStart;
+    private long position;
+
+    public MappedLineReader(Path file, long windowSize) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowSize = Math.max(4096, Math.min(windowSize, Integer.MAX_VALUE));
+    }
+
+    public static MappedLineReader open(Path file) throws IOException {
+        return new MappedLineReader(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    /**
+     * The next line without its CR/LF terminator, or null at end of file
+     */
+    public Line readLine() throws IOException {
+        if (position >= size) {
+            return null;
+        }
+        long start = position;
+        long end = indexOfNewline(start);
+        position = end < size ? end + 1 : size;
+        long contentEnd = end;
+        if (contentEnd > start && byteAt(contentEnd - 1) == '\r') {
+            contentEnd--;
+        }
+        // indexOfNewline left the whole line inside the current window
+        return new Line(window, (int) (start - windowStart), (int) (contentEnd - start), start);
+    }
+
+    /**
+     * Moves to the first line starting at or after the byte offset; a Line.getOffset() value resumes at that line
+     */
+    public void seek(long offset) throws IOException {
+        if (offset <= 0) {
+            position = 0;
+        } else if (offset >= size) {
+            position = size;
+        } else if (byteAt(offset - 1) == '\n') {
+            position = offset;
+        } else {
+            long end = indexOfNewline(offset);
+            position = end < size ? end + 1 : size;
+        }
+    }
+
+    /**
+     * Byte offset of the next line, e.g. to resume reading a growing log later
+     */
+    public long position() {
+        return position;
+    }
+
+    public long size() {
+        return size;
+    }
+
+    /**
+     * The remaining lines as a lazy stream; closing the stream closes the reader
+     */
+    public Stream<CharSequence> lines() {
+        return StreamSupport.stream(Spliterators.<CharSequence>spliteratorUnknownSize(iterator(),
+            Spliterator.ORDERED | Spliterator.NONNULL), false).onClose(this::closeQuietly);
+    }
+
+    /**
+     * Iterates the remaining lines; read errors surface as UncheckedIOException
+     */
+    @Override
+    public Iterator<Line> iterator() {
+        return new Iterator<Line>() {
+            private Line next;
+            private boolean fetched;
+
+            @Override
+            public boolean hasNext() {
+                if (!fetched) {
+                    try {
+                        next = readLine();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                    fetched = true;
+                }
+                return next != null;
+            }
+
+            @Override
+            public Line next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                fetched = false;
+                return next;
+            }
+        };
+    }
+
+    /**
+     * Absolute offset of the next '\n' at or after start, or the file size; on return the window holds start..newline
+     */
+    private long indexOfNewline(long start) throws IOException {
+        long mapSize = windowSize;
+        ensureMapped(start, mapSize);
+        while (true) {
+            int limit = window.limit();
+            for (int i = (int) (start - windowStart); i < limit; i++) {
+                if (window.get(i) == '\n') {
+                    return windowStart + i;
+                }
+            }
+            if (windowStart + limit >= size) {
+                return size;
+            }
+            // The line runs past the window: remap from its start, growing the window if it already began there
+            if (windowStart == start) {
+                if (mapSize >= Integer.MAX_VALUE) {
+                    throw new IOException("Line longer than 2GB at offset " + start);
+                }
+                mapSize = Math.min(Integer.MAX_VALUE, mapSize * 2);
+            }
+            map(start, mapSize);
+        }
+    }
+
+    private byte byteAt(long offset) throws IOException {
+        ensureMapped(offset, windowSize);
+        return window.get((int) (offset - windowStart));
+    }
+
+    private void ensureMapped(long offset, long mapSize) throws IOException {
+        if (window == null || offset < windowStart || offset >= windowStart + window.limit()) {
+            map(offset, mapSize);
+        }
+    }
+
+    private void map(long offset, long mapSize) throws IOException {
+        window = channel.map(FileChannel.MapMode.READ_ONLY, offset, Math.min(mapSize, size - offset));
+        windowStart = offset;
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        window = null;
+        channel.close();
+    }
+
+    /**
+     * One line backed by the mapped bytes; the text is decoded on first use and then cached
+     */
+    public static final class Line implements CharSequence {
+
+        private final ByteBuffer bytes;
+        private final int start;
+        private final int length;
+        private final long offset;
+        private String text;
+
+        Line(ByteBuffer bytes, int start, int length, long offset) {
+            this.bytes = bytes;
+            this.start = start;
+            this.length = length;
+            this.offset = offset;
+        }
+
+        /**
+         * Byte offset of the line in the file
+         */
+        public long getOffset() {
+            return offset;
+        }
+
+        public int getByteLength() {
+            return length;
+        }
+
+        /**
+         * Substring search; ASCII needles are matched on the raw bytes without decoding the line
+         */
+        public boolean contains(String needle) {
+            if (text != null || !isAscii(needle)) {
+                return toString().contains(needle);
+            }
+            int last = start + length - needle.length();
+            for (int i = start; i <= last; i++) {
+                if (matchesAt(i, needle)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        public boolean startsWith(String prefix) {
+            if (text != null || !isAscii(prefix)) {
+                return toString().startsWith(prefix);
+            }
+            return prefix.length() <= length && matchesAt(start, prefix);
+        }
+
+        private boolean matchesAt(int index, String ascii) {
+            for (int j = 0; j < ascii.length(); j++) {
+                if (bytes.get(index + j) != ascii.charAt(j)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isAscii(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                if (value.charAt(i) >= 0x80) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        public int length() {
+            return toString().length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            return toString().charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int from, int to) {
+            return toString().subSequence(from, to);
+        }
+
+        @Override
+        public String toString() {
+            if (text == null) {
+                byte[] copy = new byte[length];
+                ByteBuffer view = bytes.duplicate();
+                view.position(start);
+                view.get(copy);
+                text = new String(copy, StandardCharsets.UTF_8);
+            }
+            return text;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.nba.framework.utils;
+
+import com.nba.framework.config.ConfigManager;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.openqa.selenium.WebDriver;
+import org.openqa.selenium.devtools.Command;
+import org.openqa.selenium.devtools.DevTools;
+import org.openqa.selenium.devtools.Event;
+import org.openqa.selenium.devtools.HasDevTools;
+import org.openqa.selenium.json.Json;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the last video.buffer.seconds of a Chromium browser's screen in memory using the DevTools
+ * screencast, and turns them into an animated GIF only when the scenario fails.
+ *
+ * Frames arrive as JPEGs already scaled by the browser on Selenium's CDP thread; they are only
+ * decoded and encoded on failure, on the screencast-encoder thread.
+ */
+public final class ScreencastRecorder {
+
+    private static final Logger logger = LogManager.getLogger(ScreencastRecorder.class);
+    private static final ConfigManager config = ConfigManager.getInstance();
+
+    private static final Event<Map<String, Object>> SCREENCAST_FRAME =
+        new Event<>("Page.screencastFrame", input -> input.read(Json.MAP_TYPE));
+
+    private static final ExecutorService encoder = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "screencast-encoder");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final ThreadLocal<Recording> recording = new ThreadLocal<>();
+
+    private static final AtomicLong started = new AtomicLong();
+    private static final AtomicLong unsupported = new AtomicLong();
+    private static final AtomicLong framesReceived = new AtomicLong();
+    private static final AtomicLong encoded = new AtomicLong();
+
+    private ScreencastRecorder() {
+    }
+
+    public static boolean isEnabled() {
+        return config.isVideoRecording();
+    }
+
+    /**
+     * Starts buffering screencast frames for this thread's scenario. Browsers without DevTools
+     * (Firefox, most remote sessions) are skipped.
+     */
+    public static void start(WebDriver driver) {
+        if (!isEnabled() || driver == null) {
+            return;
+        }
+        if (!(driver instanceof HasDevTools)) {
+            unsupported.incrementAndGet();
+            logger.debug("Screencast not available for {}", driver.getClass().getSimpleName());
+            return;
+        }
+        try {
+            DevTools devTools = ((HasDevTools) driver).getDevTools();
+            devTools.createSessionIfThereIsNotOne();
+            Recording current = new Recording(devTools);
+            devTools.addListener(SCREENCAST_FRAME, current::onFrame);
+
+            Map<String, Object> params = new HashMap<>();
+            params.put("format", "jpeg");
+            params.put("quality", config.getVideoJpegQuality());
+            params.put("maxWidth", config.getVideoMaxSize());
+            params.put("maxHeight", config.getVideoMaxSize());
+            devTools.send(new Command<Void>("Page.startScreencast", params));
+
+            recording.set(current);
+            started.incrementAndGet();
+        } catch (RuntimeException e) {
+            unsupported.incrementAndGet();
+            logger.warn("Screencast could not be started: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Stops this thread's screencast. When the scenario failed, the buffered frames are encoded to a GIF in
+     * the background and stored (artifact store, or video.path when it is disabled); otherwise they are
+     * dropped. Returns null when nothing is encoded. Must be called before the driver is released.
+     */
+    public static CompletableFuture<ScreenshotUtils.Screenshot> stop(String scenarioName, boolean failed) {
+        Recording current = recording.get();
+        if (current == null) {
+            return null;
+        }
+        recording.remove();
+        List<Frame> frames = current.stop();
+        if (!failed || frames.isEmpty()) {
+            return null;
+        }
+        return CompletableFuture.supplyAsync(() -> persist(scenarioName, frames), encoder);
+    }
+
+    public static String getMetricsSummary() {
+        return String.format("Screencast - recorded: %d, unsupported: %d, frames received: %d, videos encoded: %d",
+            started.get(), unsupported.get(), framesReceived.get(), encoded.get());
+    }
+
+    private static ScreenshotUtils.Screenshot persist(String scenarioName, List<Frame> frames) {
+        long start = System.currentTimeMillis();
+        try {
+            byte[] gif = encodeGif(frames);
+            String fileName = FileUtils.toSafeFileName(scenarioName) + ".gif";
+            String path;
+            if (ArtifactStore.isEnabled()) {
+                path = ArtifactStore.store(fileName, gif);
+            } else {
+                path = config.getVideoPath() + FileUtils.toSafeFileName(scenarioName) + "_" + FileUtils.getTimestamp() + ".gif";
+                FileUtils.createDirectory(config.getVideoPath());
+                Files.write(Paths.get(path), gif);
+            }
+            encoded.incrementAndGet();
+            logger.info("Screencast of {} frames written to {} in {} ms", frames.size(), path, System.currentTimeMillis() - start);
+            return new ScreenshotUtils.Screenshot(path, gif, "image/gif");
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to encode screencast for: {}", scenarioName, e);
+            throw new RuntimeException("Screencast encoding failed", e);
+        }
+    }
+
+    /**
+     * Encodes the frames as a looping GIF sized to the first frame, each shown until the next one arrived
+     */
+    private static byte[] encodeGif(List<Frame> frames) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            writer.setOutput(stream);
+            writer.prepareWriteSequence(null);
+            int width = 0;
+            int height = 0;
+            for (int i = 0; i < frames.size(); i++) {
+                BufferedImage decoded = ImageIO.read(new ByteArrayInputStream(frames.get(i).jpeg));
+                if (decoded == null) {
+                    continue;
+                }
+                if (width == 0) {
+                    width = decoded.getWidth();
+                    height = decoded.getHeight();
+                }
+                BufferedImage frame = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+                Graphics2D graphics = frame.createGraphics();
+                try {
+                    graphics.drawImage(decoded, 0, 0, width, height, null);
+                } finally {
+                    graphics.dispose();
+                }
+                long nextAt = i + 1 < frames.size() ? frames.get(i + 1).receivedAt : frames.get(i).receivedAt + 1000;
+                int delayCentis = (int) Math.max(2, Math.min(500, (nextAt - frames.get(i).receivedAt) / 10));
+                writer.writeToSequence(new IIOImage(frame, null, gifMetadata(writer, frame, delayCentis, i == 0)), null);
+            }
+            writer.endWriteSequence();
+        } finally {
+            writer.dispose();
+        }
+        return out.toByteArray();
+    }
+
+    private static IIOMetadata gifMetadata(ImageWriter writer, BufferedImage frame, int delayCentis, boolean first)
+            throws IOException {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(new ImageTypeSpecifier(frame), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", Integer.toString(delayCentis));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first) {
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[] {1, 0, 0});
+            child(root, "ApplicationExtensions").appendChild(loop);
+        }
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    private static IIOMetadataNode child(IIOMetadataNode root, String name) {
+        for (int i = 0; i < root.getLength(); i++) {
+            if (root.item(i).getNodeName().equalsIgnoreCase(name)) {
+                return (IIOMetadataNode) root.item(i);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+
+    private static final class Frame {
+
+        private final byte[] jpeg;
+        private final long receivedAt;
+
+        Frame(byte[] jpeg, long receivedAt) {
+            this.jpeg = jpeg;
+            this.receivedAt = receivedAt;
+        }
+    }
+
+    /**
+     * One scenario's screencast: a ring of the frames received in the last video.buffer.seconds,
+     * thinned to at most video.frames.per.second
+     */
+    private static final class Recording {
+
+        private final DevTools devTools;
+        private final Deque<Frame> frames = new ArrayDeque<>();
+        private final long windowMillis = config.getVideoBufferSeconds() * 1000L;
+        private final long frameIntervalMillis = 1000L / Math.max(1, config.getVideoFramesPerSecond());
+        private final int maxFrames = Math.max(1, config.getVideoBufferSeconds() * config.getVideoFramesPerSecond());
+        private long lastKeptAt;
+        private volatile boolean stopped;
+
+        Recording(DevTools devTools) {
+            this.devTools = devTools;
+        }
+
+        void onFrame(Map<String, Object> frame) {
+            Object sessionId = frame.get("sessionId");
+            if (!stopped && sessionId != null) {
+                // The browser sends nothing more until the frame is acknowledged; don't wait for the reply
+                Map<String, Object> params = Collections.singletonMap("sessionId", sessionId);
+                try {
+                    devTools.send(new Command<Void>("Page.screencastFrameAck", params).doesNotSendResponse());
+                } catch (RuntimeException e) {
+                    logger.debug("Screencast frame ack failed: {}", e.toString());
+                }
+            }
+            framesReceived.incrementAndGet();
+
+            long now = System.currentTimeMillis();
+            Object data = frame.get("data");
+            synchronized (this) {
+                if (stopped || !(data instanceof String) || now - lastKeptAt < frameIntervalMillis) {
+                    return;
+                }
+                lastKeptAt = now;
+                frames.addLast(new Frame(Base64.getDecoder().decode((String) data), now));
+                while (frames.size() > maxFrames || now - frames.peekFirst().receivedAt > windowMillis) {
+                    frames.removeFirst();
+                }
+            }
+        }
+
+        List<Frame> stop() {
+            synchronized (this) {
+                stopped = true;
+            }
+            try {
+                devTools.send(new Command<Void>("Page.stopScreencast", Collections.emptyMap()));
+            } catch (RuntimeException e) {
+                logger.debug("Screencast stop failed: {}", e.toString());
+            } finally {
+                devTools.clearListeners();
+            }
+            synchronized (this) {
+                List<Frame> buffered = new ArrayList<>(frames);
+                frames.clear();
+                return buffered;
+            }
+        }
+    }
+}
@@ -2,27 +2,220 @@ package com.nba.framework.utils;
 
 import com.nba.framework.config.ConfigManager;
 import com.nba.framework.driver.DriverManager;
+import com.nba.framework.visual.PixelImage;
+import com.nba.framework.visual.VisualDiff;
+import com.nba.framework.visual.VisualDiffResult;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.OutputType;
 import org.openqa.selenium.TakesScreenshot;
 import org.openqa.selenium.WebDriver;
 
-import java.io.File;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 public class ScreenshotUtils {
     
     private static final Logger logger = LogManager.getLogger(ScreenshotUtils.class);
     private static final ConfigManager config = ConfigManager.getInstance();
     
+    private static final ExecutorService writer = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "screenshot-writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private static final Set<CompletableFuture<Screenshot>> pendingWrites = ConcurrentHashMap.newKeySet();
+    
+    private static final AtomicLong captured = new AtomicLong();
+    private static final AtomicLong captureNanos = new AtomicLong();
+    private static final AtomicLong written = new AtomicLong();
+    private static final AtomicLong writeNanos = new AtomicLong();
+    private static final AtomicLong bytesIn = new AtomicLong();
+    private static final AtomicLong bytesOut = new AtomicLong();
+    
+    private static final Map<Path, Baseline> baselines = new ConcurrentHashMap<>();
+    private static final AtomicLong comparisons = new AtomicLong();
+    private static final AtomicLong mismatches = new AtomicLong();
+    private static final AtomicLong compareNanos = new AtomicLong();
+    
+    /**
+     * A persisted screenshot: where it was written and the (possibly downscaled) image bytes
+     */
+    public static final class Screenshot {
+        
+        private final String path;
+        private final byte[] bytes;
+        private final String mimeType;
+        
+        Screenshot(String path, byte[] bytes, String mimeType) {
+            this.path = path;
+            this.bytes = bytes;
+            this.mimeType = mimeType;
+        }
+        
+        /**
+         * File the screenshot was written to, or null if writing failed
+         */
+        public String getPath() {
+            return path;
+        }
+        
+        public byte[] getBytes() {
+            return bytes;
+        }
+        
+        public String getMimeType() {
+            return mimeType;
+        }
+    }
+    
+    /**
+     * Takes one screenshot on the calling thread and hands it to the background writer, which
+     * persists it (downscaled and re-encoded per screenshot.max.width / screenshot.format) to the
+     * artifact store, or the screenshot directory when the store is disabled. Returns null when no
+     * screenshot could be taken.
+     */
+    public static CompletableFuture<Screenshot> captureAsync(String testName) {
+        byte[] png = captureScreenshotAsBytes();
+        if (png == null) {
+            return null;
+        }
+        String baseName = config.getScreenshotPath() + FileUtils.toSafeFileName(testName) + "_" + FileUtils.getTimestamp();
+        CompletableFuture<Screenshot> write = CompletableFuture.supplyAsync(() -> persist(baseName, png), writer);
+        pendingWrites.add(write);
+        write.whenComplete((screenshot, error) -> pendingWrites.remove(write));
+        return write;
+    }
+    
+    /**
+     * Waits for queued screenshots to reach disk; the writer thread is a daemon and would otherwise be cut off at exit
+     */
+    public static void awaitPendingWrites(long timeoutMillis) {
+        CompletableFuture<?>[] writes = pendingWrites.toArray(new CompletableFuture<?>[0]);
+        if (writes.length == 0) {
+            return;
+        }
+        try {
+            CompletableFuture.allOf(writes).get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            logger.warn("{} screenshot writes still pending after {} ms", pendingWrites.size(), timeoutMillis);
+        }
+    }
+    
+    public static String getMetricsSummary() {
+        long captures = captured.get();
+        long writes = written.get();
+        long compares = comparisons.get();
+        return String.format("Screenshots - captured: %d (avg %d ms on the caller), written: %d (avg %d ms in background), "
+                + "%d KB in, %d KB on disk, visual comparisons: %d (%d mismatches, avg %d ms)",
+            captures, captures == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(captureNanos.get()) / captures,
+            writes, writes == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(writeNanos.get()) / writes,
+            bytesIn.get() / 1024, bytesOut.get() / 1024,
+            compares, mismatches.get(), compares == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(compareNanos.get()) / compares);
+    }
+    
+    /**
+     * Takes a screenshot and compares it with visual.baseline.path/&lt;name&gt;.png. A missing baseline (or
+     * visual.baseline.update=true) saves the screenshot as the baseline. On a mismatch the diff mask and
+     * report are written to the artifact store. Returns null when no screenshot could be taken, and an ERROR
+     * result when the baseline cannot be read, decoded or written.
+     */
+    public static VisualDiffResult compareWithBaseline(String name) {
+        byte[] png = captureScreenshotAsBytes();
+        if (png == null) {
+            return null;
+        }
+        long start = System.nanoTime();
+        Path baselinePath = Paths.get(config.getVisualBaselinePath(), FileUtils.toSafeFileName(name) + ".png");
+        try {
+            if (config.isVisualBaselineUpdate() || !Files.exists(baselinePath)) {
+                Files.createDirectories(baselinePath.getParent());
+                Files.write(baselinePath, png);
+                baselines.remove(baselinePath);
+                logger.info("Visual baseline saved: {}", baselinePath);
+                return VisualDiffResult.baselineCreated(name);
+            }
+            
+            Baseline baseline = loadBaseline(baselinePath);
+            PixelImage decoded = Arrays.equals(baseline.bytes, png) ? null : baseline.decoded();
+            VisualDiffResult result = VisualDiff.fromConfig().compare(name, baseline.bytes, decoded, png);
+            comparisons.incrementAndGet();
+            compareNanos.addAndGet(System.nanoTime() - start);
+            
+            if (result.isMatch()) {
+                logger.debug("{}", result);
+                return result;
+            }
+            mismatches.incrementAndGet();
+            String maskPath = ArtifactStore.store(FileUtils.toSafeFileName(name) + "_visual_diff.png", result.getMask().toPng());
+            String reportPath = ArtifactStore.storeText(FileUtils.toSafeFileName(name) + "_visual_diff.txt",
+                result.toReport() + "Baseline: " + baselinePath + "\n");
+            result.setArtifactPaths(maskPath, reportPath);
+            logger.warn("{} (report: {})", result, reportPath);
+            return result;
+        } catch (IOException e) {
+            logger.error("Visual comparison failed for: {}", name, e);
+            return VisualDiffResult.error(name, "baseline " + baselinePath + " unusable: " + e);
+        }
+    }
+    
+    private static Baseline loadBaseline(Path path) throws IOException {
+        long modified = Files.getLastModifiedTime(path).toMillis();
+        Baseline cached = baselines.get(path);
+        if (cached != null && cached.modified == modified) {
+            return cached;
+        }
+        Baseline loaded = new Baseline(Files.readAllBytes(path), modified);
+        baselines.put(path, loaded);
+        return loaded;
+    }
+    
+    /**
+     * Baseline file contents, decoded on first use and kept for later scenarios comparing against it
+     */
+    private static final class Baseline {
+        
+        private final byte[] bytes;
+        private final long modified;
+        private PixelImage decoded;
+        
+        Baseline(byte[] bytes, long modified) {
+            this.bytes = bytes;
+            this.modified = modified;
+        }
+        
+        synchronized PixelImage decoded() throws IOException {
+            if (decoded == null) {
+                decoded = PixelImage.decode(bytes);
+            }
+            return decoded;
+        }
+    }
+    
     public static String captureScreenshot(String testName) {
-        WebDriver driver = DriverManager.getDriver();
-        if (driver == null) {
-            logger.error("Driver is null, cannot capture screenshot");
+        byte[] png = captureScreenshotAsBytes();
+        if (png == null) {
             return null;
         }
         
@@ -30,16 +223,10 @@ public class ScreenshotUtils {
             String screenshotPath = config.getScreenshotPath();
             FileUtils.createDirectory(screenshotPath);
             
-            String fileName = testName + "_" + FileUtils.getTimestamp() + ".png";
-            String fullPath = screenshotPath + fileName;
-            
-            TakesScreenshot takesScreenshot = (TakesScreenshot) driver;
-            File sourceFile = takesScreenshot.getScreenshotAs(OutputType.FILE);
-            
-            Path destinationPath = Paths.get(fullPath);
-            Files.copy(sourceFile.toPath(), destinationPath);
+            String fullPath = screenshotPath + testName + "_" + FileUtils.getTimestamp() + ".png";
+            Files.write(Paths.get(fullPath), png);
             
-            logger.info("Screenshot captured: " + fullPath);
+            logger.info("Screenshot captured: {}", fullPath);
             return fullPath;
             
         } catch (IOException e) {
@@ -60,11 +247,100 @@ public class ScreenshotUtils {
         }
         
         try {
-            TakesScreenshot takesScreenshot = (TakesScreenshot) driver;
-            return takesScreenshot.getScreenshotAs(OutputType.BYTES);
+            long start = System.nanoTime();
+            byte[] png = ((TakesScreenshot) driver).getScreenshotAs(OutputType.BYTES);
+            captureNanos.addAndGet(System.nanoTime() - start);
+            captured.incrementAndGet();
+            return png;
         } catch (Exception e) {
             logger.error("Failed to capture screenshot as bytes", e);
             return null;
         }
     }
+    
+    private static Screenshot persist(String baseName, byte[] png) {
+        long start = System.nanoTime();
+        byte[] bytes = png;
+        String extension = "png";
+        String mimeType = "image/png";
+        try {
+            int maxWidth = config.getScreenshotMaxWidth();
+            boolean jpeg = "jpg".equalsIgnoreCase(config.getScreenshotFormat())
+                || "jpeg".equalsIgnoreCase(config.getScreenshotFormat());
+            if (maxWidth > 0 || jpeg) {
+                BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+                if (image != null && (jpeg || image.getWidth() > maxWidth)) {
+                    bytes = encode(downscale(image, maxWidth, jpeg), jpeg);
+                    if (jpeg) {
+                        extension = "jpg";
+                        mimeType = "image/jpeg";
+                    }
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Screenshot re-encoding failed, keeping the original PNG: {}", e.toString());
+            bytes = png;
+            extension = "png";
+            mimeType = "image/png";
+        }
+        
+        String fullPath = baseName + "." + extension;
+        try {
+            if (ArtifactStore.isEnabled()) {
+                fullPath = ArtifactStore.store(FileUtils.getFileName(fullPath), bytes);
+            } else {
+                FileUtils.createDirectory(FileUtils.getDirectoryPath(fullPath));
+                Files.write(Paths.get(fullPath), bytes);
+            }
+            logger.info("Screenshot captured: {}", fullPath);
+        } catch (IOException | RuntimeException e) {
+            logger.error("Failed to write screenshot: {}", fullPath, e);
+            fullPath = null;
+        }
+        writeNanos.addAndGet(System.nanoTime() - start);
+        written.incrementAndGet();
+        bytesIn.addAndGet(png.length);
+        bytesOut.addAndGet(bytes.length);
+        return new Screenshot(fullPath, bytes, mimeType);
+    }
+    
+    /**
+     * Scales the image to at most maxWidth pixels wide (0 keeps the size); JPEG output drops the alpha channel
+     */
+    private static BufferedImage downscale(BufferedImage image, int maxWidth, boolean opaque) {
+        boolean resize = maxWidth > 0 && image.getWidth() > maxWidth;
+        if (!resize && !opaque) {
+            return image;
+        }
+        int width = resize ? maxWidth : image.getWidth();
+        int height = resize ? Math.max(1, (int) ((long) image.getHeight() * maxWidth / image.getWidth())) : image.getHeight();
+        BufferedImage scaled = new BufferedImage(width, height, opaque ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+    
+    private static byte[] encode(BufferedImage image, boolean jpeg) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!jpeg) {
+            ImageIO.write(image, "png", out);
+            return out.toByteArray();
+        }
+        ImageWriter jpegWriter = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream stream = ImageIO.createImageOutputStream(out)) {
+            ImageWriteParam param = jpegWriter.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(Math.max(1, Math.min(100, config.getScreenshotJpegQuality())) / 100f);
+            jpegWriter.setOutput(stream);
+            jpegWriter.write(null, new IIOImage(image, null, null), param);
+        } finally {
+            jpegWriter.dispose();
+        }
+        return out.toByteArray();
+    }
 }
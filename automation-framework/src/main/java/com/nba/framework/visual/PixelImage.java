@@ -0,0 +1,125 @@
+package com.nba.framework.visual;
+
+import javax.imageio.ImageIO;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * An opaque image held as one packed 0xRRGGBB int per pixel, row by row, so diffing runs over a
+ * primitive array instead of BufferedImage.getRGB calls.
+ */
+public final class PixelImage {
+
+    private static final int HASH_WIDTH = 9;
+    private static final int HASH_HEIGHT = 8;
+
+    private final int width;
+    private final int height;
+    private final int[] pixels;
+    private long hash;
+    private boolean hashed;
+
+    public PixelImage(int width, int height, int[] pixels) {
+        if (pixels.length != width * height) {
+            throw new IllegalArgumentException("Expected " + width * height + " pixels, got " + pixels.length);
+        }
+        this.width = width;
+        this.height = height;
+        this.pixels = pixels;
+    }
+
+    /**
+     * Decodes a PNG/JPEG/GIF into packed RGB pixels; alpha is discarded
+     */
+    public static PixelImage decode(byte[] encoded) throws IOException {
+        BufferedImage image = ImageIO.read(new ByteArrayInputStream(encoded));
+        if (image == null) {
+            throw new IOException("Unsupported image format");
+        }
+        BufferedImage rgb = image;
+        if (image.getType() != BufferedImage.TYPE_INT_RGB) {
+            rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D graphics = rgb.createGraphics();
+            try {
+                graphics.drawImage(image, 0, 0, null);
+            } finally {
+                graphics.dispose();
+            }
+        }
+        int[] pixels = ((DataBufferInt) rgb.getRaster().getDataBuffer()).getData();
+        return new PixelImage(rgb.getWidth(), rgb.getHeight(), pixels);
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * The backing array; callers must not modify it
+     */
+    int[] pixels() {
+        return pixels;
+    }
+
+    /**
+     * 64-bit difference hash: the image is averaged down to 9x8 grey cells and each bit records whether
+     * a cell is brighter than its right-hand neighbour. Near-identical images have a small Hamming distance.
+     */
+    public synchronized long dHash() {
+        if (!hashed) {
+            hash = computeDHash();
+            hashed = true;
+        }
+        return hash;
+    }
+
+    public static int hammingDistance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    public byte[] toPng() throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        image.getRaster().setDataElements(0, 0, width, height, pixels);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+
+    private long computeDHash() {
+        long[] sums = new long[HASH_WIDTH * HASH_HEIGHT];
+        int[] counts = new int[HASH_WIDTH * HASH_HEIGHT];
+        int[] cellColumns = new int[width];
+        for (int x = 0; x < width; x++) {
+            cellColumns[x] = x * HASH_WIDTH / width;
+        }
+        // Sample every fourth row and every other column; plenty for a 72-cell average
+        for (int y = 0; y < height; y += 4) {
+            int cellRow = y * HASH_HEIGHT / height * HASH_WIDTH;
+            int rowStart = y * width;
+            for (int x = 0; x < width; x += 2) {
+                int cell = cellRow + cellColumns[x];
+                int rgb = pixels[rowStart + x];
+                sums[cell] += ((rgb >> 16) & 0xFF) * 299 + ((rgb >> 8) & 0xFF) * 587 + (rgb & 0xFF) * 114;
+                counts[cell]++;
+            }
+        }
+        long bits = 0;
+        for (int row = 0; row < HASH_HEIGHT; row++) {
+            for (int column = 0; column < HASH_WIDTH - 1; column++) {
+                int left = row * HASH_WIDTH + column;
+                long leftMean = counts[left] == 0 ? 0 : sums[left] / counts[left];
+                long rightMean = counts[left + 1] == 0 ? 0 : sums[left + 1] / counts[left + 1];
+                bits = (bits << 1) | (leftMean > rightMean ? 1 : 0);
+            }
+        }
+        return bits;
+    }
+}
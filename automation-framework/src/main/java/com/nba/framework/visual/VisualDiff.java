@@ -0,0 +1,238 @@
+package com.nba.framework.visual;
+
+import com.nba.framework.config.ConfigManager;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Compares a screenshot with its baseline in three increasingly expensive steps:
+ * identical encoded bytes short-circuit without decoding, a 64-bit dHash rejects pages that are
+ * structurally different, and only then are the pixels compared tile by tile on a fork-join pool.
+ * Rejected pages are still diffed once to build their mask, since those are the regressions worth looking at.
+ */
+public final class VisualDiff {
+
+    private static final ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    /** Tiles per fork-join leaf task */
+    private static final int TILES_PER_TASK = 8;
+
+    private static final int DIFF_COLOR = 0xFF0000;
+    // Flips the top bit of every channel, so a padded pixel differs from the baseline by 128 per channel
+    private static final int PADDING_XOR = 0x808080;
+    private static final int TILE_OUTLINE_COLOR = 0xFF9900;
+
+    private final int pixelTolerance;
+    private final int tileSize;
+    private final double maxDiffRatio;
+    private final int maxHashDistance;
+
+    /**
+     * @param pixelTolerance largest per-channel difference (0-255) still treated as equal, absorbs anti-aliasing
+     * @param tileSize       edge length of the square tiles compared in parallel and reported
+     * @param maxDiffRatio   share of differing pixels at or below which the images still match
+     * @param maxHashDistance dHash Hamming distance above which the pixel diff is skipped as a mismatch
+     */
+    public VisualDiff(int pixelTolerance, int tileSize, double maxDiffRatio, int maxHashDistance) {
+        this.pixelTolerance = Math.max(0, pixelTolerance);
+        this.tileSize = Math.max(8, tileSize);
+        this.maxDiffRatio = maxDiffRatio;
+        this.maxHashDistance = maxHashDistance;
+    }
+
+    public static VisualDiff fromConfig() {
+        ConfigManager config = ConfigManager.getInstance();
+        return new VisualDiff(config.getVisualPixelTolerance(), config.getVisualTileSize(),
+            config.getVisualMaxDiffPercent() / 100.0, config.getVisualMaxHashDistance());
+    }
+
+    public VisualDiffResult compare(String name, byte[] baseline, byte[] actual) throws IOException {
+        return compare(name, baseline, null, actual);
+    }
+
+    /**
+     * Compares encoded screenshots; pass the already decoded baseline when it is cached, or null
+     */
+    public VisualDiffResult compare(String name, byte[] baseline, PixelImage decodedBaseline, byte[] actual)
+            throws IOException {
+        long start = System.nanoTime();
+        if (Arrays.equals(baseline, actual)) {
+            return new VisualDiffResult(name, VisualDiffResult.Outcome.IDENTICAL, 0, 0, 0, null, null, System.nanoTime() - start);
+        }
+        PixelImage expected = decodedBaseline != null ? decodedBaseline : PixelImage.decode(baseline);
+        return compare(name, expected, PixelImage.decode(actual), start);
+    }
+
+    public VisualDiffResult compare(String name, PixelImage baseline, PixelImage actual) {
+        return compare(name, baseline, actual, System.nanoTime());
+    }
+
+    private VisualDiffResult compare(String name, PixelImage baseline, PixelImage actual, long start) {
+        boolean sameSize = baseline.getWidth() == actual.getWidth() && baseline.getHeight() == actual.getHeight();
+        int hashDistance = PixelImage.hammingDistance(baseline.dHash(), actual.dHash());
+        if (!sameSize || hashDistance > maxHashDistance) {
+            // Fails whatever the pixel count; the diff only feeds the mask and report
+            VisualDiffResult.Outcome outcome = sameSize
+                ? VisualDiffResult.Outcome.HASH_MISMATCH
+                : VisualDiffResult.Outcome.SIZE_MISMATCH;
+            return diff(name, outcome, baseline, sameSize ? actual : fitTo(actual, baseline), hashDistance, start);
+        }
+        return diff(name, null, baseline, actual, hashDistance, start);
+    }
+
+    /**
+     * Tile-by-tile pixel diff of two images of the same size. A null outcome is decided by maxDiffRatio.
+     */
+    private VisualDiffResult diff(String name, VisualDiffResult.Outcome outcome, PixelImage baseline, PixelImage actual,
+                                  int hashDistance, long start) {
+        int width = baseline.getWidth();
+        int height = baseline.getHeight();
+        int tilesAcross = (width + tileSize - 1) / tileSize;
+        int tilesDown = (height + tileSize - 1) / tileSize;
+        int[] tileDiffs = new int[tilesAcross * tilesDown];
+        pool.invoke(new TileDiff(baseline.pixels(), actual.pixels(), width, height, tilesAcross, tileDiffs, 0, tileDiffs.length));
+
+        long differentPixels = 0;
+        List<int[]> changedTiles = new ArrayList<>();
+        for (int tile = 0; tile < tileDiffs.length; tile++) {
+            if (tileDiffs[tile] > 0) {
+                differentPixels += tileDiffs[tile];
+                int x = (tile % tilesAcross) * tileSize;
+                int y = (tile / tilesAcross) * tileSize;
+                changedTiles.add(new int[] {x, y, Math.min(tileSize, width - x), Math.min(tileSize, height - y), tileDiffs[tile]});
+            }
+        }
+
+        long comparedPixels = (long) width * height;
+        if (outcome == null) {
+            outcome = (double) differentPixels / comparedPixels <= maxDiffRatio
+                ? VisualDiffResult.Outcome.WITHIN_TOLERANCE
+                : VisualDiffResult.Outcome.DIFFERENT;
+        }
+        PixelImage mask = outcome == VisualDiffResult.Outcome.WITHIN_TOLERANCE ? null : buildMask(baseline, actual, changedTiles);
+        return new VisualDiffResult(name, outcome, differentPixels, comparedPixels, hashDistance, changedTiles, mask,
+            System.nanoTime() - start);
+    }
+
+    /**
+     * The image cropped or padded to the baseline's size; padding never matches the baseline, so area the
+     * screenshot lacks shows up as changed
+     */
+    private static PixelImage fitTo(PixelImage image, PixelImage baseline) {
+        int width = baseline.getWidth();
+        int height = baseline.getHeight();
+        int[] source = image.pixels();
+        int[] expected = baseline.pixels();
+        int[] fitted = new int[width * height];
+        int overlapWidth = Math.min(width, image.getWidth());
+        for (int y = 0; y < height; y++) {
+            int row = y * width;
+            int copied = y < image.getHeight() ? overlapWidth : 0;
+            if (copied > 0) {
+                System.arraycopy(source, y * image.getWidth(), fitted, row, copied);
+            }
+            for (int x = copied; x < width; x++) {
+                fitted[row + x] = expected[row + x] ^ PADDING_XOR;
+            }
+        }
+        return new PixelImage(width, height, fitted);
+    }
+
+    /**
+     * Dimmed baseline with differing pixels in red and changed tiles outlined; only changed tiles are re-scanned
+     */
+    private PixelImage buildMask(PixelImage baseline, PixelImage actual, List<int[]> changedTiles) {
+        int width = baseline.getWidth();
+        int[] expected = baseline.pixels();
+        int[] observed = actual.pixels();
+        int[] mask = new int[expected.length];
+        for (int i = 0; i < expected.length; i++) {
+            int rgb = expected[i];
+            int grey = (((rgb >> 16) & 0xFF) + ((rgb >> 8) & 0xFF) + (rgb & 0xFF)) / 9 + 170;
+            mask[i] = (grey << 16) | (grey << 8) | grey;
+        }
+        for (int[] tile : changedTiles) {
+            int x0 = tile[0];
+            int y0 = tile[1];
+            int x1 = x0 + tile[2];
+            int y1 = y0 + tile[3];
+            for (int y = y0; y < y1; y++) {
+                int row = y * width;
+                for (int x = x0; x < x1; x++) {
+                    if (y == y0 || y == y1 - 1 || x == x0 || x == x1 - 1) {
+                        mask[row + x] = TILE_OUTLINE_COLOR;
+                    }
+                    if (differs(expected[row + x], observed[row + x])) {
+                        mask[row + x] = DIFF_COLOR;
+                    }
+                }
+            }
+        }
+        return new PixelImage(width, baseline.getHeight(), mask);
+    }
+
+    private boolean differs(int expected, int actual) {
+        if (expected == actual) {
+            return false;
+        }
+        return Math.abs(((expected >> 16) & 0xFF) - ((actual >> 16) & 0xFF)) > pixelTolerance
+            || Math.abs(((expected >> 8) & 0xFF) - ((actual >> 8) & 0xFF)) > pixelTolerance
+            || Math.abs((expected & 0xFF) - (actual & 0xFF)) > pixelTolerance;
+    }
+
+    /**
+     * Counts differing pixels for a range of tiles, splitting the range in half until it is small enough
+     */
+    private final class TileDiff extends RecursiveAction {
+
+        private final int[] expected;
+        private final int[] actual;
+        private final int width;
+        private final int height;
+        private final int tilesAcross;
+        private final int[] tileDiffs;
+        private final int from;
+        private final int to;
+
+        TileDiff(int[] expected, int[] actual, int width, int height, int tilesAcross, int[] tileDiffs, int from, int to) {
+            this.expected = expected;
+            this.actual = actual;
+            this.width = width;
+            this.height = height;
+            this.tilesAcross = tilesAcross;
+            this.tileDiffs = tileDiffs;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > TILES_PER_TASK) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new TileDiff(expected, actual, width, height, tilesAcross, tileDiffs, from, middle),
+                    new TileDiff(expected, actual, width, height, tilesAcross, tileDiffs, middle, to));
+                return;
+            }
+            for (int tile = from; tile < to; tile++) {
+                int x0 = (tile % tilesAcross) * tileSize;
+                int y0 = (tile / tilesAcross) * tileSize;
+                int x1 = Math.min(width, x0 + tileSize);
+                int y1 = Math.min(height, y0 + tileSize);
+                int count = 0;
+                for (int y = y0; y < y1; y++) {
+                    int row = y * width;
+                    for (int i = row + x0, end = row + x1; i < end; i++) {
+                        if (expected[i] != actual[i] && differs(expected[i], actual[i])) {
+                            count++;
+                        }
+                    }
+                }
+                tileDiffs[tile] = count;
+            }
+        }
+    }
+}
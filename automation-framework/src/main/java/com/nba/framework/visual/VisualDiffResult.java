@@ -0,0 +1,144 @@
+package com.nba.framework.visual;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Outcome of comparing a screenshot with its baseline. The mask, when present, shows differing pixels
+ * in red over a dimmed copy of the baseline with changed tiles outlined.
+ */
+public final class VisualDiffResult {
+
+    /**
+     * How the comparison was decided
+     */
+    public enum Outcome {
+        /** Encoded bytes were identical; nothing was decoded */
+        IDENTICAL,
+        /** Pixels compared and the differences are within tolerance */
+        WITHIN_TOLERANCE,
+        /** Pixels compared and too many differ */
+        DIFFERENT,
+        /** Perceptual hashes were too far apart; pixels are diffed only for the mask */
+        HASH_MISMATCH,
+        /** Image sizes differ; the screenshot is cropped or padded to the baseline for the mask */
+        SIZE_MISMATCH,
+        /** No baseline existed; the screenshot was saved as the new baseline */
+        BASELINE_CREATED,
+        /** The baseline could not be read, decoded or written; nothing was compared */
+        ERROR
+    }
+
+    private final String name;
+    private final Outcome outcome;
+    private final long differentPixels;
+    private final long comparedPixels;
+    private final int hashDistance;
+    private final List<int[]> changedTiles;
+    private final PixelImage mask;
+    private final long elapsedNanos;
+    private String error;
+    private String maskPath;
+    private String reportPath;
+
+    VisualDiffResult(String name, Outcome outcome, long differentPixels, long comparedPixels, int hashDistance,
+                     List<int[]> changedTiles, PixelImage mask, long elapsedNanos) {
+        this.name = name;
+        this.outcome = outcome;
+        this.differentPixels = differentPixels;
+        this.comparedPixels = comparedPixels;
+        this.hashDistance = hashDistance;
+        this.changedTiles = changedTiles == null ? Collections.emptyList() : Collections.unmodifiableList(changedTiles);
+        this.mask = mask;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public static VisualDiffResult baselineCreated(String name) {
+        return new VisualDiffResult(name, Outcome.BASELINE_CREATED, 0, 0, 0, null, null, 0);
+    }
+
+    public static VisualDiffResult error(String name, String error) {
+        VisualDiffResult result = new VisualDiffResult(name, Outcome.ERROR, 0, 0, 0, null, null, 0);
+        result.error = error;
+        return result;
+    }
+
+    public boolean isMatch() {
+        return outcome == Outcome.IDENTICAL || outcome == Outcome.WITHIN_TOLERANCE || outcome == Outcome.BASELINE_CREATED;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Outcome getOutcome() {
+        return outcome;
+    }
+
+    public long getDifferentPixels() {
+        return differentPixels;
+    }
+
+    public double getDiffRatio() {
+        return comparedPixels == 0 ? (outcome == Outcome.IDENTICAL ? 0 : 1) : (double) differentPixels / comparedPixels;
+    }
+
+    public int getHashDistance() {
+        return hashDistance;
+    }
+
+    /**
+     * Changed tiles as {x, y, width, height, differentPixels}
+     */
+    public List<int[]> getChangedTiles() {
+        return changedTiles;
+    }
+
+    public PixelImage getMask() {
+        return mask;
+    }
+
+    /**
+     * Why the comparison could not run, for ERROR results
+     */
+    public String getError() {
+        return error;
+    }
+
+    public long getElapsedMicros() {
+        return elapsedNanos / 1000;
+    }
+
+    public String getMaskPath() {
+        return maskPath;
+    }
+
+    public String getReportPath() {
+        return reportPath;
+    }
+
+    public void setArtifactPaths(String maskPath, String reportPath) {
+        this.maskPath = maskPath;
+        this.reportPath = reportPath;
+    }
+
+    /**
+     * Multi-line text report: the summary line followed by the changed tiles
+     */
+    public String toReport() {
+        StringBuilder report = new StringBuilder(toString()).append("\n");
+        for (int[] tile : changedTiles) {
+            report.append(String.format("  tile x=%d y=%d %dx%d: %d pixels differ%n", tile[0], tile[1], tile[2], tile[3], tile[4]));
+        }
+        return report.toString();
+    }
+
+    @Override
+    public String toString() {
+        if (outcome == Outcome.ERROR) {
+            return String.format("Visual diff [%s] %s - %s", name, outcome, error);
+        }
+        return String.format("Visual diff [%s] %s - %d pixels differ (%.4f%%), %d tiles changed, dHash distance %d, %d us",
+            name, outcome, differentPixels, getDiffRatio() * 100, changedTiles.size(), hashDistance, getElapsedMicros());
+    }
+}
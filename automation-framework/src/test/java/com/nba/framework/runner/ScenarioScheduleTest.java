@@ -0,0 +1,37 @@
+package com.nba.framework.runner;
+
+import org.testng.annotations.Test;
+
+import static org.testng.Assert.assertEquals;
+
+public class ScenarioScheduleTest {
+
+    @Test
+    public void longestFirstBeatsFeatureOrder() {
+        // In feature order the long scenario starts last and runs alone
+        assertEquals(ScenarioSchedule.makespan(new long[] {1, 1, 1, 1, 4}, 2), 6);
+        assertEquals(ScenarioSchedule.makespan(new long[] {4, 1, 1, 1, 1}, 2), 4);
+    }
+
+    @Test
+    public void assignsEachScenarioToFirstFreeThread() {
+        // Thread finish times: 5|4, 5|7, 8|7, 8|10
+        assertEquals(ScenarioSchedule.makespan(new long[] {5, 4, 3, 3, 3}, 2), 10);
+        assertEquals(ScenarioSchedule.makespan(new long[] {5, 4, 3, 3, 3}, 3), 7);
+    }
+
+    @Test
+    public void singleThreadRunsTheSum() {
+        assertEquals(ScenarioSchedule.makespan(new long[] {7, 2, 9}, 1), 18);
+    }
+
+    @Test
+    public void moreThreadsThanScenariosRunsTheLongest() {
+        assertEquals(ScenarioSchedule.makespan(new long[] {7, 2, 9}, 10), 9);
+    }
+
+    @Test
+    public void noScenariosTakeNoTime() {
+        assertEquals(ScenarioSchedule.makespan(new long[0], 4), 0);
+    }
+}
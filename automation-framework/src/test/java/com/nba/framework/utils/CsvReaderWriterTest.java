@@ -0,0 +1,114 @@
+package com.nba.framework.utils;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNull;
+
+public class CsvReaderWriterTest {
+
+    @Test
+    public void readsQuotedCommasAndDoubledQuotes() throws IOException {
+        List<String[]> rows = read("name,comment\r\n\"Curry, Stephen\",\"said \"\"splash\"\"\"\r\n");
+
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(1), new String[] {"Curry, Stephen", "said \"splash\""});
+    }
+
+    @Test
+    public void readsLineBreaksInsideQuotedFields() throws IOException {
+        List<String[]> rows = read("a,\"line one\r\nline two\nline three\rend\",b\n");
+
+        assertEquals(rows.size(), 1);
+        assertEquals(rows.get(0), new String[] {"a", "line one\r\nline two\nline three\rend", "b"});
+    }
+
+    @Test
+    public void acceptsLfCrAndCrlfRecordSeparators() throws IOException {
+        List<String[]> rows = read("a,1\nb,2\rc,3\r\nd,4\r\n");
+
+        assertEquals(rows.size(), 4);
+        assertEquals(rows.get(0), new String[] {"a", "1"});
+        assertEquals(rows.get(1), new String[] {"b", "2"});
+        assertEquals(rows.get(2), new String[] {"c", "3"});
+        assertEquals(rows.get(3), new String[] {"d", "4"});
+    }
+
+    @Test
+    public void skipsByteOrderMark() throws IOException {
+        List<String[]> rows = read("﻿id,team\n1,Warriors\n");
+
+        assertEquals(rows.get(0), new String[] {"id", "team"});
+        assertEquals(rows.get(1), new String[] {"1", "Warriors"});
+    }
+
+    @Test
+    public void returnsTrailingRecordWithoutNewline() throws IOException {
+        List<String[]> rows = read("a,b\nc,\"d\"");
+
+        assertEquals(rows.size(), 2);
+        assertEquals(rows.get(1), new String[] {"c", "d"});
+    }
+
+    @Test
+    public void keepsEmptyFields() throws IOException {
+        List<String[]> rows = read(",x,\n\"\",,\"\"\n");
+
+        assertEquals(rows.get(0), new String[] {"", "x", ""});
+        assertEquals(rows.get(1), new String[] {"", "", ""});
+    }
+
+    @Test
+    public void returnsNullAtEndOfInput() throws IOException {
+        CsvReader reader = new CsvReader(new StringReader("only\n"));
+
+        assertEquals(reader.readRow(), new String[] {"only"});
+        assertNull(reader.readRow());
+        assertNull(reader.readRow());
+    }
+
+    @Test
+    public void writerQuotesOnlyFieldsThatNeedIt() throws IOException {
+        StringWriter out = new StringWriter();
+        CsvWriter writer = new CsvWriter(out);
+        writer.writeRow("plain", "a,b", "say \"hi\"", "two\nlines", null, "");
+        writer.flush();
+
+        assertEquals(out.toString(), "plain,\"a,b\",\"say \"\"hi\"\"\",\"two\nlines\",,\r\n");
+    }
+
+    @Test
+    public void roundTripsAwkwardFields() throws IOException {
+        List<String[]> rows = Arrays.asList(
+            new String[] {"id", "text", "note"},
+            new String[] {"1", "Curry, Stephen", "\"quoted\""},
+            new String[] {"2", "cr\rlf\ncrlf\r\n", ""},
+            new String[] {"3", "\"", ",,,"},
+            new String[] {"4", " leading and trailing ", "﻿not a BOM"});
+
+        List<String[]> parsed = read(CsvWriter.toString(rows));
+
+        assertEquals(parsed.size(), rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertEquals(parsed.get(i), rows.get(i), "row " + i);
+        }
+    }
+
+    private static List<String[]> read(String csv) throws IOException {
+        List<String[]> rows = new ArrayList<>();
+        try (CsvReader reader = new CsvReader(new StringReader(csv))) {
+            String[] row;
+            while ((row = reader.readRow()) != null) {
+                rows.add(row);
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,148 @@
+package com.nba.framework.utils;
+
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class MappedLineReaderTest {
+
+    // The smallest window the reader accepts, so a few KB of lines cross several remaps
+    private static final int WINDOW = 4096;
+
+    private Path file;
+
+    @BeforeMethod
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped-line-reader", ".log");
+    }
+
+    @AfterMethod(alwaysRun = true)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Test
+    public void readsLinesAcrossWindowBoundaries() throws IOException {
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            expected.add("line " + i + " " + String.join("", Collections.nCopies(i % 37, "x")));
+        }
+        write(String.join("\n", expected) + "\n");
+
+        assertEquals(readAll(), expected);
+    }
+
+    @Test
+    public void readsLineLongerThanWindow() throws IOException {
+        String longLine = String.join("", Collections.nCopies(3 * WINDOW + 17, "y"));
+        write("first\n" + longLine + "\nlast\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file, WINDOW)) {
+            assertEquals(reader.readLine().toString(), "first");
+            MappedLineReader.Line line = reader.readLine();
+            assertEquals(line.getByteLength(), longLine.length());
+            assertEquals(line.getOffset(), 6);
+            assertEquals(line.toString(), longLine);
+            assertEquals(reader.readLine().toString(), "last");
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void stripsCrlfIncludingCrOnWindowEdge() throws IOException {
+        // The first line's CR is the last byte of the first window and its LF the first byte of the next
+        String first = String.join("", Collections.nCopies(WINDOW - 1, "a"));
+        write(first + "\r\nsecond\r\n\r\nfourth");
+
+        assertEquals(readAll(), List.of(first, "second", "", "fourth"));
+    }
+
+    @Test
+    public void returnsTrailingLineWithoutNewline() throws IOException {
+        write("one\ntwo");
+
+        try (MappedLineReader reader = new MappedLineReader(file, WINDOW)) {
+            assertEquals(reader.readLine().toString(), "one");
+            assertEquals(reader.readLine().toString(), "two");
+            assertEquals(reader.position(), reader.size());
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void seekResumesAtLineOffsetOrNextLine() throws IOException {
+        List<String> lines = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            lines.add("entry-" + i + "-" + String.join("", Collections.nCopies(i % 23, "z")));
+        }
+        write(String.join("\r\n", lines) + "\r\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file, WINDOW)) {
+            MappedLineReader.Line target = null;
+            for (int i = 0; i <= 300; i++) {
+                target = reader.readLine();
+            }
+            long offset = target.getOffset();
+            assertTrue(offset > WINDOW);
+
+            reader.seek(0);
+            assertEquals(reader.readLine().toString(), "entry-0-");
+
+            reader.seek(offset);
+            assertEquals(reader.readLine().toString(), lines.get(300));
+
+            reader.seek(offset + 1);
+            assertEquals(reader.readLine().toString(), lines.get(301));
+
+            reader.seek(reader.size() + 10);
+            assertNull(reader.readLine());
+        }
+    }
+
+    @Test
+    public void matchesWithoutDecoding() throws IOException {
+        write("2026-10-18 INFO started\n2026-10-18 ERROR failed\n");
+
+        try (MappedLineReader reader = new MappedLineReader(file, WINDOW)) {
+            MappedLineReader.Line info = reader.readLine();
+            MappedLineReader.Line error = reader.readLine();
+            assertTrue(info.startsWith("2026-10-18"));
+            assertFalse(info.contains("ERROR"));
+            assertTrue(error.contains("ERROR"));
+            assertFalse(error.startsWith("ERROR"));
+        }
+    }
+
+    @Test
+    public void readsEmptyFile() throws IOException {
+        try (MappedLineReader reader = new MappedLineReader(file, WINDOW)) {
+            assertEquals(reader.size(), 0);
+            assertNull(reader.readLine());
+        }
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(file, content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<String> readAll() throws IOException {
+        try (Stream<CharSequence> lines = new MappedLineReader(file, WINDOW).lines()) {
+            return lines.map(CharSequence::toString).collect(Collectors.toList());
+        }
+    }
+}
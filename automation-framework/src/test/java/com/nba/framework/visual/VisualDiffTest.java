@@ -0,0 +1,104 @@
+package com.nba.framework.visual;
+
+import org.testng.annotations.Test;
+
+import java.io.IOException;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertFalse;
+import static org.testng.Assert.assertNotNull;
+import static org.testng.Assert.assertNull;
+import static org.testng.Assert.assertTrue;
+
+public class VisualDiffTest {
+
+    private static final int WIDTH = 64;
+    private static final int HEIGHT = 64;
+
+    // Tolerance 8 per channel, 16px tiles, 1% of pixels may differ, hash check effectively off
+    private final VisualDiff visualDiff = new VisualDiff(8, 16, 0.01, 64);
+
+    @Test
+    public void identicalBytesSkipDecoding() throws IOException {
+        byte[] png = gradient(WIDTH, HEIGHT).toPng();
+
+        VisualDiffResult result = visualDiff.compare("identical", png, png.clone());
+
+        assertEquals(result.getOutcome(), VisualDiffResult.Outcome.IDENTICAL);
+        assertTrue(result.isMatch());
+        assertEquals(result.getDifferentPixels(), 0);
+    }
+
+    @Test
+    public void smallDifferencesAreWithinTolerance() {
+        PixelImage baseline = gradient(WIDTH, HEIGHT);
+        int[] pixels = baseline.pixels().clone();
+        // Every pixel off by less than the tolerance, ten pixels changed outright
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] += 0x030303;
+        }
+        for (int i = 0; i < 10; i++) {
+            pixels[i * 97] ^= 0xFFFFFF;
+        }
+
+        VisualDiffResult result = visualDiff.compare("tolerance", baseline, new PixelImage(WIDTH, HEIGHT, pixels));
+
+        assertEquals(result.getOutcome(), VisualDiffResult.Outcome.WITHIN_TOLERANCE);
+        assertTrue(result.isMatch());
+        assertEquals(result.getDifferentPixels(), 10);
+        assertNull(result.getMask());
+    }
+
+    @Test
+    public void changedRegionIsDifferent() {
+        PixelImage baseline = gradient(WIDTH, HEIGHT);
+        int[] pixels = baseline.pixels().clone();
+        for (int y = 0; y < 32; y++) {
+            for (int x = 0; x < 32; x++) {
+                pixels[y * WIDTH + x] = 0x000000;
+            }
+        }
+
+        VisualDiffResult result = visualDiff.compare("region", baseline, new PixelImage(WIDTH, HEIGHT, pixels));
+
+        assertEquals(result.getOutcome(), VisualDiffResult.Outcome.DIFFERENT);
+        assertFalse(result.isMatch());
+        assertEquals(result.getChangedTiles().size(), 4);
+        assertNotNull(result.getMask());
+    }
+
+    @Test
+    public void sizeMismatchFailsAndReportsMissingArea() {
+        PixelImage baseline = gradient(WIDTH, HEIGHT);
+        PixelImage shorter = gradient(WIDTH, HEIGHT - 16);
+
+        VisualDiffResult result = visualDiff.compare("size", baseline, shorter);
+
+        assertEquals(result.getOutcome(), VisualDiffResult.Outcome.SIZE_MISMATCH);
+        assertFalse(result.isMatch());
+        // Only the padded bottom strip differs from the baseline
+        assertEquals(result.getDifferentPixels(), WIDTH * 16);
+        assertEquals(result.getMask().getWidth(), WIDTH);
+        assertEquals(result.getMask().getHeight(), HEIGHT);
+    }
+
+    @Test
+    public void decodesEncodedScreenshots() throws IOException {
+        PixelImage image = gradient(WIDTH, HEIGHT);
+        PixelImage decoded = PixelImage.decode(image.toPng());
+
+        assertEquals(decoded.getWidth(), WIDTH);
+        assertEquals(decoded.getHeight(), HEIGHT);
+        assertEquals(decoded.pixels(), image.pixels());
+    }
+
+    private static PixelImage gradient(int width, int height) {
+        int[] pixels = new int[width * height];
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                pixels[y * width + x] = (x * 3) << 16 | (y * 3) << 8 | 0x40;
+            }
+        }
+        return new PixelImage(width, height, pixels);
+    }
+}
@@ -1,24 +1,32 @@
 package com.nba.tests.core.assertions;
 
 import com.nba.framework.assertions.BaseAssertion;
+import com.nba.framework.data.TeamTestData;
+import com.nba.framework.data.TestDataRepository;
 import com.nba.tests.core.pages.WarriorsPage;
 import org.openqa.selenium.WebElement;
 import org.springframework.stereotype.Component;
 
+import java.net.URI;
 import java.util.List;
 
 @Component
 public class WarriorsPageAssertions extends BaseAssertion {
     
     private WarriorsPage warriorsPage;
+    private TeamTestData expectations;
     
     public WarriorsPageAssertions() {
         this.warriorsPage = new WarriorsPage();
+        this.expectations = TestDataRepository.getDefault().team("warriors");
     }
     
     public void assertWarriorsPageLoaded() {
         String currentUrl = warriorsPage.getCurrentUrl();
-        assertContains(currentUrl, "warriors", "Warriors page should be loaded");
+        // The team page lives under the path of its URL in testdata.json, e.g. /warriors
+        String teamUrl = expectations.getUrl();
+        String expectedPath = teamUrl != null ? URI.create(teamUrl).getPath().replaceAll("/+$", "") : "warriors";
+        assertContains(currentUrl, expectedPath, "Warriors page should be loaded");
     }
     
     public void assertShopMenuVisible() {
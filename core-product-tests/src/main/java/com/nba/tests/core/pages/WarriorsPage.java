@@ -1,14 +1,21 @@
 package com.nba.tests.core.pages;
 
 import com.nba.framework.pages.BasePage;
+import com.nba.framework.pages.ExtractedRow;
 import com.nba.framework.config.ConfigManager;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.openqa.selenium.By;
+import org.openqa.selenium.TimeoutException;
 import org.openqa.selenium.WebElement;
+import org.openqa.selenium.support.ui.ExpectedConditions;
+import org.openqa.selenium.support.ui.WebDriverWait;
 import org.springframework.stereotype.Component;
 
+import java.time.Duration;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @Component
 public class WarriorsPage extends BasePage {
@@ -23,12 +30,26 @@ public class WarriorsPage extends BasePage {
     //a[text()='Men']
     public static final By JACKETS_CATEGORY = By.xpath("(//div[contains(text(),'Jackets')])[1]");
     public static final By PRODUCT_ITEMS = By.cssSelector("[data-testid*='product'], .product-item, .product-card, .product-tile, .product");
-    public static final By PRODUCT_TITLE = By.cssSelector(".product-title, .product-name, h3, h4, .product-tile-title, .product-name-link");
-    public static final By PRODUCT_PRICE = By.cssSelector(".price, .product-price, [class*='price'], .product-tile-price, .price-current");
-    public static final By TOP_SELLER_BADGE = By.cssSelector(".top-seller, .bestseller, [class*='top-seller'], [class*='bestseller']");
+    private static final String PRODUCT_TITLE_CSS = ".product-title, .product-name, h3, h4, .product-tile-title, .product-name-link";
+    private static final String PRODUCT_PRICE_CSS = ".price, .product-price, [class*='price'], .product-tile-price, .price-current";
+    private static final String TOP_SELLER_BADGE_CSS = ".top-seller, .bestseller, [class*='top-seller'], [class*='bestseller']";
+    public static final By PRODUCT_TITLE = By.cssSelector(PRODUCT_TITLE_CSS);
+    public static final By PRODUCT_PRICE = By.cssSelector(PRODUCT_PRICE_CSS);
+    public static final By TOP_SELLER_BADGE = By.cssSelector(TOP_SELLER_BADGE_CSS);
     public static final By NEXT_PAGE_BUTTON = By.cssSelector(".next, .pagination-next, [aria-label*='next']");
     public static final By PAGINATION = By.cssSelector(".pagination, .page-numbers");
     
+    // Product grid fields, read for every product in one script call
+    public static final String FIELD_TITLE = "title";
+    public static final String FIELD_PRICE = "price";
+    public static final String FIELD_TOP_SELLER = "topSeller";
+    private static final Map<String, String> PRODUCT_FIELDS = new LinkedHashMap<>();
+    static {
+        PRODUCT_FIELDS.put(FIELD_TITLE, PRODUCT_TITLE_CSS);
+        PRODUCT_FIELDS.put(FIELD_PRICE, PRODUCT_PRICE_CSS);
+        PRODUCT_FIELDS.put(FIELD_TOP_SELLER, TOP_SELLER_BADGE_CSS);
+    }
+    
     // New & Features locators
     public static final By NEW_FEATURES_MENU = By.xpath("//a[contains(text(), 'New') or contains(text(), 'Features')]");
     public static final By VIDEO_FEEDS = By.cssSelector("video, .video-player, [class*='video']");
@@ -42,43 +63,11 @@ public class WarriorsPage extends BasePage {
         // First, try to dismiss any modal backdrops that might be intercepting the click
         dismissModalBackdrop();
         
-        // Wait a moment for any animations to complete
-        try {
-            Thread.sleep(1000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Count windows before click
-        int windowsBefore = driver.getWindowHandles().size();
-        logger.info("Windows before Shop click: " + windowsBefore);
-        
-        // Try to click the Shop menu with enhanced click strategy
-        clickWithRetry(SHOP_MENU);
-        
-        // Wait for navigation
-        try {
-            Thread.sleep(3000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
-        // Check if new window/tab opened
-        int windowsAfter = driver.getWindowHandles().size();
-        logger.info("Windows after Shop click: " + windowsAfter);
-        
-        if (windowsAfter > windowsBefore) {
-            logger.info("New window/tab opened! Switching to it...");
-            // Switch to the new window
-            for (String windowHandle : driver.getWindowHandles()) {
-                if (!windowHandle.equals(driver.getWindowHandle())) {
-                    driver.switchTo().window(windowHandle);
-                    break;
-                }
-            }
-            logger.info("Switched to shop window. Current URL: " + driver.getCurrentUrl());
+        // Try to click the Shop menu with enhanced click strategy; the shop may open in a new window/tab
+        if (clickWithRetry(SHOP_MENU)) {
+            logger.info("Switched to shop window. Current URL: {}", driver.getCurrentUrl());
         } else {
-            logger.info("No new window opened. Current URL: " + driver.getCurrentUrl());
+            logger.info("No new window opened. Current URL: {}", driver.getCurrentUrl());
         }
     }
     
@@ -86,11 +75,13 @@ public class WarriorsPage extends BasePage {
         try {
             // Check if modal backdrop exists
             List<WebElement> modalBackdrops = driver.findElements(MODAL_BACKDROP);
-            logger.info("Found " + modalBackdrops.size() + " modal backdrops");
+            logger.info("Found {} modal backdrops", modalBackdrops.size());
             
             for (WebElement backdrop : modalBackdrops) {
                 if (backdrop.isDisplayed()) {
-                    logger.info("Dismissing modal backdrop with aria-hidden: " + backdrop.getAttribute("aria-hidden"));
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Dismissing modal backdrop with aria-hidden: {}", backdrop.getAttribute("aria-hidden"));
+                    }
                     
                     // Try multiple methods to dismiss the modal
                     try {
@@ -116,28 +107,38 @@ public class WarriorsPage extends BasePage {
                     }
                     
                     // Wait for modal to disappear
-                    Thread.sleep(1000);
+                    try {
+                        new WebDriverWait(driver, Duration.ofSeconds(1), Duration.ofMillis(50))
+                            .until(ExpectedConditions.invisibilityOf(backdrop));
+                    } catch (TimeoutException e) {
+                        logger.info("Modal backdrop still displayed after dismissal attempt");
+                    }
                     break; // Only dismiss the first visible modal
                 }
             }
         } catch (Exception e) {
-            logger.info("No modal backdrop found or couldn't dismiss: " + e.getMessage());
+            logger.info("No modal backdrop found or couldn't dismiss: {}", e.getMessage());
         }
     }
     
-    private void clickWithRetry(By locator) {
+    /**
+     * Clicks the Shop element and returns true if the click opened (and switched to) a new window
+     */
+    private boolean clickWithRetry(By locator) {
         int maxRetries = 3;
         for (int i = 0; i < maxRetries; i++) {
             try {
                 // Find all elements matching the locator
                 List<WebElement> elements = driver.findElements(locator);
-                logger.info("Found " + elements.size() + " elements matching: " + locator);
+                logger.debug("Found {} elements matching: {}", elements.size(), locator);
                 
                 // Find the first element with "SHOP" text
                 WebElement targetElement = null;
                 for (WebElement element : elements) {
                     String text = element.getText().trim();
-                    logger.info("Element text: '" + text + "', visible: " + element.isDisplayed());
+                    if (logger.isDebugEnabled()) {
+                        logger.debug("Element text: '{}', visible: {}", text, element.isDisplayed());
+                    }
                     if ("SHOP".equals(text) && element.isDisplayed()) {
                         targetElement = element;
                         break;
@@ -158,67 +159,57 @@ public class WarriorsPage extends BasePage {
                     throw new RuntimeException("No visible Shop element found");
                 }
                 
-                logger.info("Target element found: visible=" + targetElement.isDisplayed() + ", enabled=" + targetElement.isEnabled());
+                if (logger.isDebugEnabled()) {
+                    logger.debug("Target element found: visible={}, enabled={}", targetElement.isDisplayed(), targetElement.isEnabled());
+                }
                 
-                // Try JavaScript click first (more reliable for intercepted elements)
-                ((org.openqa.selenium.JavascriptExecutor) driver).executeScript("arguments[0].click();", targetElement);
+                // JavaScript click (more reliable for intercepted elements), returning as soon as the shop opens
+                boolean openedNewWindow = clickAndAwaitNewWindow(targetElement, timeout);
                 logger.info("Successfully clicked Shop element using JavaScript");
-                return;
+                return openedNewWindow;
                 
             } catch (org.openqa.selenium.ElementClickInterceptedException e) {
-                logger.warn("Click intercepted, attempt " + (i + 1) + "/" + maxRetries);
+                logger.warn("Click intercepted, attempt {}/{}", i + 1, maxRetries);
                 
                 if (i < maxRetries - 1) {
                     // Try to dismiss modal again
                     dismissModalBackdrop();
                     
-                    // Wait before retry
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
+                    // Let the page settle before retrying
+                    awaitDomSettle(Duration.ofSeconds(1));
                 } else {
                     throw e; // Re-throw if all retries failed
                 }
             } catch (Exception e) {
-                logger.warn("Click failed, attempt " + (i + 1) + "/" + maxRetries + ": " + e.getMessage());
+                logger.warn("Click failed, attempt {}/{}: {}", i + 1, maxRetries, e.getMessage());
                 
                 if (i < maxRetries - 1) {
                     // Try to dismiss modal again
                     dismissModalBackdrop();
                     
-                    // Wait before retry
-                    try {
-                        Thread.sleep(1000);
-                    } catch (InterruptedException ie) {
-                        Thread.currentThread().interrupt();
-                    }
+                    // Let the page settle before retrying
+                    awaitDomSettle(Duration.ofSeconds(1));
                 } else {
                     throw e; // Re-throw if all retries failed
                 }
             }
         }
+        return false;
     }
     
     public void clickMensMenu() {
         try {
             WebElement mensElement = driver.findElement(MENS_MENU);
-            logger.info("Found Men's element: visible=" + mensElement.isDisplayed() + ", enabled=" + mensElement.isEnabled());
+            if (logger.isDebugEnabled()) {
+                logger.debug("Found Men's element: visible={}, enabled={}", mensElement.isDisplayed(), mensElement.isEnabled());
+            }
             
-            // Use JavaScript click for reliability
-            ((org.openqa.selenium.JavascriptExecutor) driver).executeScript("arguments[0].click();", mensElement);
+            // Use JavaScript click for reliability, then wait for the category page (or re-rendered grid) to load
+            clickAndAwaitPageUpdate(mensElement, timeout);
             logger.info("Successfully clicked Men's element using JavaScript");
             
-            // Wait for navigation
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
-            
         } catch (Exception e) {
-            logger.error("Failed to click Men's menu: " + e.getMessage());
+            logger.error("Failed to click Men's menu: {}", e.getMessage());
             throw e;
         }
     }
@@ -228,18 +219,12 @@ public class WarriorsPage extends BasePage {
             // Find the div containing "Jackets" - it's clickable even if not visible
             WebElement jacketsDiv = driver.findElement(JACKETS_CATEGORY);
             
-            // Use JavaScript click for dynamic elements that are not interactable
-            ((org.openqa.selenium.JavascriptExecutor) driver).executeScript("arguments[0].click();", jacketsDiv);
-            
-            // Wait for navigation
-            try {
-                Thread.sleep(3000);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-            }
+            // Use JavaScript click for dynamic elements that are not interactable, then wait for the product grid,
+            // which the storefront may re-render in place rather than navigate to
+            clickAndAwaitPageUpdate(jacketsDiv, timeout);
             
         } catch (Exception e) {
-            logger.error("Failed to click Jackets category: " + e.getMessage());
+            logger.error("Failed to click Jackets category: {}", e.getMessage());
             throw e;
         }
     }
@@ -255,7 +240,24 @@ public class WarriorsPage extends BasePage {
             // Use non-blocking approach to avoid hanging
             return driver.findElements(PRODUCT_ITEMS);
         } catch (Exception e) {
-            logger.error("Failed to find product items: " + e.getMessage());
+            logger.error("Failed to find product items: {}", e.getMessage());
+            return new java.util.ArrayList<>();
+        }
+    }
+    
+    /**
+     * Title, price and top seller message of every product on the current page in a single round trip
+     */
+    public List<ExtractedRow> getAllProductDetails() {
+        try {
+            // The script reads the grid as it is, so give a grid that is still rendering time to appear
+            if (!waitForPresence(PRODUCT_ITEMS, timeout)) {
+                logger.warn("No product items appeared within {}s", timeout.getSeconds());
+                return new java.util.ArrayList<>();
+            }
+            return extractRows(PRODUCT_ITEMS, PRODUCT_FIELDS);
+        } catch (Exception e) {
+            logger.error("Failed to extract product details: {}", e.getMessage());
             return new java.util.ArrayList<>();
         }
     }
@@ -286,7 +288,7 @@ public class WarriorsPage extends BasePage {
     }
     
     public boolean hasNextPage() {
-        return isElementPresent(NEXT_PAGE_BUTTON) && isElementVisible(NEXT_PAGE_BUTTON);
+        return isVisibleNow(NEXT_PAGE_BUTTON);
     }
     
     public void clickNextPage() {
@@ -296,7 +298,7 @@ public class WarriorsPage extends BasePage {
     }
     
     public boolean isPaginationPresent() {
-        return isElementPresent(PAGINATION);
+        return isPresentNow(PAGINATION);
     }
     
     public void hoverOnMenu(String menuText) {
@@ -330,7 +332,7 @@ public class WarriorsPage extends BasePage {
             List<WebElement> elements = driver.findElements(JACKETS_CATEGORY);
             return elements.size() > 0; // Dynamic elements exist but may not be visible
         } catch (Exception e) {
-            logger.error("Error checking Jackets category: " + e.getMessage());
+            logger.error("Error checking Jackets category: {}", e.getMessage());
             return false;
         }
     }
@@ -1,5 +1,6 @@
 package com.nba.tests.core;
 
+import com.nba.framework.runner.ScenarioSchedule;
 import io.cucumber.testng.AbstractTestNGCucumberTests;
 import io.cucumber.testng.CucumberOptions;
 import org.testng.annotations.DataProvider;
@@ -21,6 +22,7 @@ public class WarriorsTestRunner extends AbstractTestNGCucumberTests {
     @Override
     @DataProvider(parallel = true)
     public Object[][] scenarios() {
-        return super.scenarios();
+        // Longest scenarios first, so a slow one never starts last while other threads sit idle
+        return ScenarioSchedule.longestFirst(super.scenarios());
     }
 }
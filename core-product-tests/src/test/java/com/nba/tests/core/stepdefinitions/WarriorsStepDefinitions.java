@@ -1,6 +1,7 @@
 package com.nba.tests.core.stepdefinitions;
 
-import com.nba.framework.utils.FileUtils;
+import com.nba.framework.pages.ExtractedRow;
+import com.nba.framework.utils.ArtifactStore;
 import com.nba.tests.core.assertions.WarriorsPageAssertions;
 import com.nba.tests.core.pages.WarriorsPage;
 import io.cucumber.java.en.And;
@@ -9,7 +10,6 @@ import io.cucumber.java.en.Then;
 import io.cucumber.java.en.When;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
-import org.openqa.selenium.WebElement;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
@@ -59,11 +59,9 @@ public class WarriorsStepDefinitions {
                 // Try navigating directly to shop URL
                 logger.info("Shop menu not visible, navigating directly to shop URL");
                 warriorsPage.navigateTo("https://shop.warriors.com/");
-                Thread.sleep(3000);
             } else {
                 logger.info("Clicking Shop menu");
                 warriorsPage.clickShopMenu();
-                Thread.sleep(3000);
             }
             
             // Check if we're on shop page
@@ -73,17 +71,10 @@ public class WarriorsStepDefinitions {
             if (currentUrl.contains("shop.warriors.com")) {
                 logger.info("Successfully navigated to shop page");
                 
-                // Now click Men's menu
+                // Now click Men's menu; it returns once the category page has settled
                 logger.info("Clicking Men's menu");
                 warriorsPage.clickMensMenu();
                 
-                // Wait longer for dynamic content to load
-                try {
-                    Thread.sleep(5000);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                }
-                
                 logger.info("Successfully clicked Men's menu");
             } else {
                 throw new RuntimeException("Failed to navigate to shop page. Current URL: " + currentUrl);
@@ -105,13 +96,6 @@ public class WarriorsStepDefinitions {
     
     @And("I click on Jackets category")
     public void iClickOnJacketsCategory() {
-        // Wait a bit more for dynamic content to load
-        try {
-            Thread.sleep(2000);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
-        
         warriorsAssertions.assertJacketsCategoryVisible();
         warriorsPage.clickJacketsCategory();
         logger.info("Clicked on Jackets category");
@@ -130,12 +114,12 @@ public class WarriorsStepDefinitions {
         
         do {
             logger.info("Collecting jacket information from page " + pageCount);
-            List<WebElement> products = warriorsPage.getAllProductItems();
+            List<ExtractedRow> products = warriorsPage.getAllProductDetails();
             
-            for (WebElement product : products) {
-                String title = warriorsPage.getProductTitle(product);
-                String price = warriorsPage.getProductPrice(product);
-                String topSellerMessage = warriorsPage.getTopSellerMessage(product);
+            for (ExtractedRow product : products) {
+                String title = product.get(WarriorsPage.FIELD_TITLE, "Title not found");
+                String price = product.get(WarriorsPage.FIELD_PRICE, "Price not found");
+                String topSellerMessage = product.get(WarriorsPage.FIELD_TOP_SELLER, "");
                 
                 String jacketInfo = String.format("Page %d - Title: %s, Price: %s, Top Seller: %s", 
                     pageCount, title, price, topSellerMessage);
@@ -155,7 +139,6 @@ public class WarriorsStepDefinitions {
     
     @Then("I should store jacket details to a text file")
     public void iShouldStoreJacketDetailsToATextFile() {
-        String fileName = "./test-output/jacket_details_" + FileUtils.getTimestamp() + ".txt";
         StringBuilder content = new StringBuilder();
         content.append("NBA Warriors - Jacket Details Report\n");
         content.append("=====================================\n\n");
@@ -165,7 +148,7 @@ public class WarriorsStepDefinitions {
             content.append(detail).append("\n");
         }
         
-        FileUtils.writeToFile(fileName, content.toString());
+        String fileName = ArtifactStore.storeText("jacket_details.txt", content.toString());
         logger.info("Jacket details stored to file: " + fileName);
     }
     
@@ -65,23 +65,23 @@ public class SixersPage extends BasePage {
     }
     
     public void clickNextSlide() {
-        if (isElementPresent(NEXT_SLIDE_BUTTON) && isElementVisible(NEXT_SLIDE_BUTTON)) {
+        if (isVisibleNow(NEXT_SLIDE_BUTTON)) {
             click(NEXT_SLIDE_BUTTON);
         }
     }
     
     public void clickPreviousSlide() {
-        if (isElementPresent(PREV_SLIDE_BUTTON) && isElementVisible(PREV_SLIDE_BUTTON)) {
+        if (isVisibleNow(PREV_SLIDE_BUTTON)) {
             click(PREV_SLIDE_BUTTON);
         }
     }
     
     public boolean hasNextSlide() {
-        return isElementPresent(NEXT_SLIDE_BUTTON) && isElementVisible(NEXT_SLIDE_BUTTON);
+        return isVisibleNow(NEXT_SLIDE_BUTTON);
     }
     
     public boolean hasPreviousSlide() {
-        return isElementPresent(PREV_SLIDE_BUTTON) && isElementVisible(PREV_SLIDE_BUTTON);
+        return isVisibleNow(PREV_SLIDE_BUTTON);
     }
     
     public List<WebElement> getSlideIndicators() {
@@ -1,7 +1,9 @@
 package com.nba.tests.bulls.stepdefinitions;
 
 import com.nba.framework.assertions.BaseAssertion;
-import com.nba.framework.utils.FileUtils;
+import com.nba.framework.data.TeamTestData;
+import com.nba.framework.data.TestDataRepository;
+import com.nba.framework.utils.ArtifactStore;
 import com.nba.tests.bulls.pages.BullsPage;
 import io.cucumber.java.en.And;
 import io.cucumber.java.en.Given;
@@ -21,6 +23,7 @@ public class BullsStepDefinitions {
     
     private BullsPage bullsPage;
     private BaseAssertion assertions;
+    private TeamTestData expectations;
     private List<String> footerLinkUrls;
     private List<String> footerLinkTexts;
     private List<String> footerLinkCategories;
@@ -29,6 +32,7 @@ public class BullsStepDefinitions {
     public BullsStepDefinitions() {
         this.bullsPage = new BullsPage();
         this.assertions = new BaseAssertion();
+        this.expectations = TestDataRepository.getDefault().team("bulls");
         this.footerLinkUrls = new ArrayList<>();
         this.footerLinkTexts = new ArrayList<>();
         this.footerLinkCategories = new ArrayList<>();
@@ -71,16 +75,30 @@ public class BullsStepDefinitions {
     @And("I categorize the footer links")
     public void iCategorizeTheFooterLinks() {
         logger.info("Footer links categorized:");
-        logger.info("- Team links: " + bullsPage.countTeamLinks());
-        logger.info("- Tickets links: " + bullsPage.countTicketsLinks());
-        logger.info("- Shop links: " + bullsPage.countShopLinks());
-        logger.info("- Social links: " + bullsPage.countSocialLinks());
+        for (String category : expectations.getExpectedFooterCategories()) {
+            int count = countLinks(category);
+            logger.info("- {} links: {}", category, count);
+            assertions.assertTrue(count > 0, category + " links should be present in the footer");
+        }
+    }
+    
+    private int countLinks(String category) {
+        switch (category.toLowerCase()) {
+            case "team":
+                return bullsPage.countTeamLinks();
+            case "tickets":
+                return bullsPage.countTicketsLinks();
+            case "shop":
+                return bullsPage.countShopLinks();
+            case "social":
+                return bullsPage.countSocialLinks();
+            default:
+                throw new IllegalArgumentException("Unknown footer link category: " + category);
+        }
     }
     
     @Then("I should store footer links to a CSV file")
     public void iShouldStoreFooterLinksToACSVFile() {
-        String fileName = "./test-output/footer_links_" + FileUtils.getTimestamp() + ".csv";
-        
         List<String[]> csvData = new ArrayList<>();
         csvData.add(new String[]{"Link Text", "URL", "Category"});
         
@@ -92,7 +110,7 @@ public class BullsStepDefinitions {
             csvData.add(new String[]{text, url, category});
         }
         
-        FileUtils.writeCSVFile(fileName, csvData);
+        String fileName = ArtifactStore.storeCsv("footer_links.csv", csvData);
         logger.info("Footer links stored to CSV file: " + fileName);
     }
     
@@ -136,30 +154,18 @@ public class BullsStepDefinitions {
     
     @Then("I should validate {string} links")
     public void iShouldValidateCategoryLinks(String category) {
-        int count = 0;
-        switch (category.toLowerCase()) {
-            case "team":
-                count = bullsPage.countTeamLinks();
-                break;
-            case "tickets":
-                count = bullsPage.countTicketsLinks();
-                break;
-            case "shop":
-                count = bullsPage.countShopLinks();
-                break;
-            case "social":
-                count = bullsPage.countSocialLinks();
-                break;
+        int count = countLinks(category);
+        int expected = expectations.getExpectedLinkCount(category);
+        if (expected >= 0) {
+            assertions.assertEquals(count, expected, category + " link count should match testdata.json");
+        } else {
+            assertions.assertTrue(count > 0, category + " links should be present");
         }
-        
-        assertions.assertTrue(count > 0, category + " links should be present");
-        logger.info("Validated " + count + " " + category + " links");
+        logger.info("Validated {} {} links", count, category);
     }
     
     @And("I should store {string} links to CSV file")
     public void iShouldStoreCategoryLinksToCSVFile(String category) {
-        String fileName = "./test-output/" + category.toLowerCase() + "_links_" + FileUtils.getTimestamp() + ".csv";
-        
         List<String[]> csvData = new ArrayList<>();
         csvData.add(new String[]{"Link Text", "URL", "Category"});
         
@@ -185,7 +191,7 @@ public class BullsStepDefinitions {
             csvData.add(new String[]{text, url, category});
         }
         
-        FileUtils.writeCSVFile(fileName, csvData);
+        String fileName = ArtifactStore.storeCsv(category.toLowerCase() + "_links.csv", csvData);
         logger.info(category + " links stored to CSV file: " + fileName);
     }
 }